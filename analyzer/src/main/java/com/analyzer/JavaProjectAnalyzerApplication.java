@@ -1,5 +1,6 @@
 package com.analyzer;
 
+import com.example.common.config.StartupTimings;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
@@ -8,7 +9,9 @@ import org.springframework.cache.annotation.EnableCaching;
 //@EnableCaching
 public class JavaProjectAnalyzerApplication {
     public static void main(String[] args) {
-        SpringApplication.run(JavaProjectAnalyzerApplication.class, args);
+        SpringApplication application = new SpringApplication(JavaProjectAnalyzerApplication.class);
+        StartupTimings.install(application);
+        application.run(args);
     }
 }
 
@@ -1,17 +1,32 @@
 package com.analyzer.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("analysisResults");
+    public CacheManager cacheManager(@Value("${analyzer.checkstyle.cache.maximum-size:10000}") long checkstyleMaximumSize,
+                                     @Value("${analyzer.checkstyle.cache.expire-after-write:PT1H}") Duration checkstyleExpireAfterWrite) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        // Keyed by uploaded content, so every distinct file would otherwise stay in memory
+        CaffeineCache checkstyleResults = new CaffeineCache("checkstyleResults", Caffeine.newBuilder()
+                .maximumSize(checkstyleMaximumSize)
+                .expireAfterWrite(checkstyleExpireAfterWrite)
+                .build());
+        cacheManager.setCaches(List.of(new ConcurrentMapCache("analysisResults"), checkstyleResults));
+        return cacheManager;
     }
-}
\ No newline at end of file
+}
@@ -12,6 +12,7 @@ public class AnalysisResult {
     private List<String> sequenceLogic;
     private List<String> exposedApis;
     private List<String> externalApiCalls;
+    private ServiceCallGraph serviceCallGraph;
 
     public AnalysisResult(String id, List<UmlDiagram> umlDiagrams, List<ApiInfo> apiInfo,
                           ComparisonResult comparisonResult, CodeQualityMetrics codeQualityMetrics,
@@ -101,4 +102,11 @@ public class AnalysisResult {
         this.externalApiCalls = externalApiCalls;
     }
 
+    public ServiceCallGraph getServiceCallGraph() {
+        return serviceCallGraph;
+    }
+
+    public void setServiceCallGraph(ServiceCallGraph serviceCallGraph) {
+        this.serviceCallGraph = serviceCallGraph;
+    }
 }
\ No newline at end of file
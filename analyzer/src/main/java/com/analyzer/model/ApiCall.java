@@ -0,0 +1,103 @@
+package com.analyzer.model;
+
+public class ApiCall {
+    private String service;
+    private String className;
+    // With the package, which tells apart classes of the same name; the class name alone when unknown
+    private String qualifiedClassName;
+    private String methodName;
+    private String client;
+    private String httpMethod;
+    private String baseUrl;
+    private String path;
+    private String targetService;
+
+    public ApiCall(String service, String className, String methodName, String client,
+                   String httpMethod, String baseUrl, String path) {
+        this.service = service;
+        this.className = className;
+        this.methodName = methodName;
+        this.client = client;
+        this.httpMethod = httpMethod;
+        this.baseUrl = baseUrl;
+        this.path = path;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getQualifiedClassName() {
+        return qualifiedClassName;
+    }
+
+    public void setQualifiedClassName(String qualifiedClassName) {
+        this.qualifiedClassName = qualifiedClassName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    public void setClient(String client) {
+        this.client = client;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public void setHttpMethod(String httpMethod) {
+        this.httpMethod = httpMethod;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getTargetService() {
+        return targetService;
+    }
+
+    public void setTargetService(String targetService) {
+        this.targetService = targetService;
+    }
+
+    @Override
+    public String toString() {
+        return httpMethod + " " + baseUrl + path + " (" + service + ": " + className + "." + methodName
+                + " via " + client + " -> " + targetService + ")";
+    }
+}
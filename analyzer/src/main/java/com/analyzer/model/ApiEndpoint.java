@@ -0,0 +1,92 @@
+package com.analyzer.model;
+
+import java.util.Objects;
+
+public class ApiEndpoint {
+    private String service;
+    private String className;
+    // With the package, which tells apart classes of the same name; the class name alone when unknown
+    private String qualifiedClassName;
+    private String methodName;
+    private String httpMethod;
+    private String path;
+
+    public ApiEndpoint(String service, String className, String methodName, String httpMethod, String path) {
+        this.service = service;
+        this.className = className;
+        this.methodName = methodName;
+        this.httpMethod = httpMethod;
+        this.path = path;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getQualifiedClassName() {
+        return qualifiedClassName;
+    }
+
+    public void setQualifiedClassName(String qualifiedClassName) {
+        this.qualifiedClassName = qualifiedClassName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public void setHttpMethod(String httpMethod) {
+        this.httpMethod = httpMethod;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ApiEndpoint that = (ApiEndpoint) o;
+        return Objects.equals(service, that.service) &&
+                Objects.equals(className, that.className) &&
+                Objects.equals(qualifiedClassName, that.qualifiedClassName) &&
+                Objects.equals(methodName, that.methodName) &&
+                Objects.equals(httpMethod, that.httpMethod) &&
+                Objects.equals(path, that.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(service, className, qualifiedClassName, methodName, httpMethod, path);
+    }
+
+    @Override
+    public String toString() {
+        return httpMethod + " " + path + " (" + service + ": " + className + "." + methodName + ")";
+    }
+}
@@ -1,9 +1,19 @@
 package com.analyzer.model;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class CodeQualityMetrics {
     private int violations;
     private double complexity;
     private double duplication;
+    private double cognitiveComplexity;
+    private int maxNestingDepth;
+    private List<MethodHotspot> hotspots = new ArrayList<>();
+    private Map<String, Integer> violationsByRule = new LinkedHashMap<>();
+    private Map<String, Integer> violationsByFile = new LinkedHashMap<>();
 
     public CodeQualityMetrics(int violations, double complexity, double duplication) {
         this.violations = violations;
@@ -34,4 +44,44 @@ public class CodeQualityMetrics {
     public void setDuplication(double duplication) {
         this.duplication = duplication;
     }
-}
\ No newline at end of file
+
+    public double getCognitiveComplexity() {
+        return cognitiveComplexity;
+    }
+
+    public void setCognitiveComplexity(double cognitiveComplexity) {
+        this.cognitiveComplexity = cognitiveComplexity;
+    }
+
+    public int getMaxNestingDepth() {
+        return maxNestingDepth;
+    }
+
+    public void setMaxNestingDepth(int maxNestingDepth) {
+        this.maxNestingDepth = maxNestingDepth;
+    }
+
+    public List<MethodHotspot> getHotspots() {
+        return hotspots;
+    }
+
+    public void setHotspots(List<MethodHotspot> hotspots) {
+        this.hotspots = hotspots;
+    }
+
+    public Map<String, Integer> getViolationsByRule() {
+        return violationsByRule;
+    }
+
+    public void setViolationsByRule(Map<String, Integer> violationsByRule) {
+        this.violationsByRule = violationsByRule;
+    }
+
+    public Map<String, Integer> getViolationsByFile() {
+        return violationsByFile;
+    }
+
+    public void setViolationsByFile(Map<String, Integer> violationsByFile) {
+        this.violationsByFile = violationsByFile;
+    }
+}
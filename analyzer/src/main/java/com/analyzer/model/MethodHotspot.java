@@ -0,0 +1,78 @@
+package com.analyzer.model;
+
+public class MethodHotspot {
+    private String className;
+    private String methodName;
+    private int line;
+    private int cyclomaticComplexity;
+    private int cognitiveComplexity;
+    private int nestingDepth;
+    private int linesOfCode;
+
+    public MethodHotspot(String className, String methodName, int line, int cyclomaticComplexity,
+                         int cognitiveComplexity, int nestingDepth, int linesOfCode) {
+        this.className = className;
+        this.methodName = methodName;
+        this.line = line;
+        this.cyclomaticComplexity = cyclomaticComplexity;
+        this.cognitiveComplexity = cognitiveComplexity;
+        this.nestingDepth = nestingDepth;
+        this.linesOfCode = linesOfCode;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public int getCyclomaticComplexity() {
+        return cyclomaticComplexity;
+    }
+
+    public void setCyclomaticComplexity(int cyclomaticComplexity) {
+        this.cyclomaticComplexity = cyclomaticComplexity;
+    }
+
+    public int getCognitiveComplexity() {
+        return cognitiveComplexity;
+    }
+
+    public void setCognitiveComplexity(int cognitiveComplexity) {
+        this.cognitiveComplexity = cognitiveComplexity;
+    }
+
+    public int getNestingDepth() {
+        return nestingDepth;
+    }
+
+    public void setNestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+    }
+
+    public int getLinesOfCode() {
+        return linesOfCode;
+    }
+
+    public void setLinesOfCode(int linesOfCode) {
+        this.linesOfCode = linesOfCode;
+    }
+}
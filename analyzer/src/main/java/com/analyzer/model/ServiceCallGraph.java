@@ -0,0 +1,42 @@
+package com.analyzer.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ServiceCallGraph {
+    private List<ApiEndpoint> exposedEndpoints;
+    private List<ApiCall> outboundCalls;
+    private Map<String, Set<String>> serviceDependencies;
+
+    public ServiceCallGraph(List<ApiEndpoint> exposedEndpoints, List<ApiCall> outboundCalls,
+                            Map<String, Set<String>> serviceDependencies) {
+        this.exposedEndpoints = exposedEndpoints;
+        this.outboundCalls = outboundCalls;
+        this.serviceDependencies = serviceDependencies;
+    }
+
+    public List<ApiEndpoint> getExposedEndpoints() {
+        return exposedEndpoints;
+    }
+
+    public void setExposedEndpoints(List<ApiEndpoint> exposedEndpoints) {
+        this.exposedEndpoints = exposedEndpoints;
+    }
+
+    public List<ApiCall> getOutboundCalls() {
+        return outboundCalls;
+    }
+
+    public void setOutboundCalls(List<ApiCall> outboundCalls) {
+        this.outboundCalls = outboundCalls;
+    }
+
+    public Map<String, Set<String>> getServiceDependencies() {
+        return serviceDependencies;
+    }
+
+    public void setServiceDependencies(Map<String, Set<String>> serviceDependencies) {
+        this.serviceDependencies = serviceDependencies;
+    }
+}
@@ -4,6 +4,7 @@ public class UmlDiagram {
     private String id;
     private String type;
     private String content;
+    private String name;
 
     public UmlDiagram(String id, String type, String content) {
         this.id = id;
@@ -34,4 +35,12 @@ public class UmlDiagram {
     public void setContent(String content) {
         this.content = content;
     }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.analyzer.service;
 import com.analyzer.model.*;
 import com.analyzer.util.CsvExporter;
 import com.analyzer.util.PdfExporter;
+import com.github.javaparser.ast.CompilationUnit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -25,6 +26,12 @@ public class AnalyzerService {
     @Autowired
     private ApiExtractorService apiExtractorService;
 
+    @Autowired
+    private ApiCallGraphService apiCallGraphService;
+
+    @Autowired
+    private SourceParserService sourceParserService;
+
     @Autowired
     private DabParserService dabParserService;
 
@@ -76,14 +83,19 @@ public class AnalyzerService {
             // Read Java project
             Map<String, byte[]> projectFiles = readZipFile(javaProjectPath);
 
-            sendProgressUpdate(analysisId, "Generating UML diagrams...", 10);
-            List<UmlDiagram> umlDiagrams = umlGeneratorService.generateUmlDiagrams(projectFiles);
+            Map<String, CompilationUnit> compilationUnits = sourceParserService.parseJavaSources(projectFiles);
+
+            sendProgressUpdate(analysisId, "Building service call graph...", 10);
+            ServiceCallGraph serviceCallGraph = apiCallGraphService.buildCallGraph(compilationUnits);
+
+            sendProgressUpdate(analysisId, "Generating UML diagrams...", 20);
+            List<UmlDiagram> umlDiagrams = umlGeneratorService.generateUmlDiagrams(compilationUnits, serviceCallGraph);
 
             sendProgressUpdate(analysisId, "Extracting API information...", 30);
             List<ApiInfo> apiInfo = apiExtractorService.extractApiInfo(projectFiles);
 
             sendProgressUpdate(analysisId, "Analyzing code quality...", 50);
-            CodeQualityMetrics codeQualityMetrics = codeQualityService.analyzeCodeQuality(projectFiles);
+            CodeQualityMetrics codeQualityMetrics = codeQualityService.analyzeCodeQuality(projectFiles, compilationUnits);
 
             sendProgressUpdate(analysisId, "Extracting database changes...", 60);
             List<DatabaseChange> databaseChanges = liquibaseChangeExtractor.extractChanges(projectFiles);
@@ -98,7 +110,8 @@ public class AnalyzerService {
             List<String> externalApiCalls = dabParserService.parseExternalApiCalls(dabContent);
 
             sendProgressUpdate(analysisId, "Comparing extracted information with DAB...", 90);
-            ComparisonResult comparisonResult = comparisonService.compare(umlDiagrams, dabDiagrams, apiInfo, dabApiInfo);
+            ComparisonResult comparisonResult = comparisonService.compare(umlDiagrams, dabDiagrams, apiInfo, dabApiInfo,
+                    serviceCallGraph, exposedApis, externalApiCalls);
 
             // Create AnalysisResult object
             AnalysisResult result = new AnalysisResult(
@@ -112,6 +125,7 @@ public class AnalyzerService {
                     exposedApis,
                     externalApiCalls
             );
+            result.setServiceCallGraph(serviceCallGraph);
 
             // Cache the result
             cacheAnalysisResult(analysisId, result);
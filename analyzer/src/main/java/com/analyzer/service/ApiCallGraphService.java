@@ -0,0 +1,355 @@
+package com.analyzer.service;
+
+import com.analyzer.model.ApiCall;
+import com.analyzer.model.ApiEndpoint;
+import com.analyzer.model.ServiceCallGraph;
+import com.analyzer.util.ApiEndpointIndex;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class ApiCallGraphService {
+
+    private static final Map<String, String> MAPPING_ANNOTATIONS = Map.of(
+            "RequestMapping", "",
+            "GetMapping", "GET",
+            "PostMapping", "POST",
+            "PutMapping", "PUT",
+            "DeleteMapping", "DELETE",
+            "PatchMapping", "PATCH"
+    );
+
+    private static final Set<String> WEB_CLIENT_METHODS = Set.of("get", "post", "put", "delete", "patch", "head", "options");
+
+    private static final Map<String, String> REST_TEMPLATE_METHODS = Map.of(
+            "getForObject", "GET",
+            "getForEntity", "GET",
+            "postForObject", "POST",
+            "postForEntity", "POST",
+            "postForLocation", "POST",
+            "put", "PUT",
+            "delete", "DELETE",
+            "patchForObject", "PATCH",
+            "exchange", ""
+    );
+
+    private static final Set<String> REST_TEMPLATE_TYPES = Set.of("RestTemplate", "RestOperations");
+    private static final String EXTERNAL = "external";
+
+    /**
+     * Builds a service-level call graph from controller mappings and outbound WebClient,
+     * RestTemplate and Feign calls. Units are processed in parallel; outbound calls are then
+     * resolved against an index of the exposed endpoints.
+     */
+    public ServiceCallGraph buildCallGraph(Map<String, CompilationUnit> compilationUnits) {
+        List<ApiEndpoint> exposedEndpoints = compilationUnits.entrySet().parallelStream()
+                .flatMap(entry -> extractEndpoints(serviceName(entry.getKey()), entry.getValue()).stream())
+                .collect(Collectors.toList());
+
+        List<ApiCall> outboundCalls = compilationUnits.entrySet().parallelStream()
+                .flatMap(entry -> extractCalls(serviceName(entry.getKey()), entry.getValue()).stream())
+                .collect(Collectors.toList());
+
+        ApiEndpointIndex<ApiEndpoint> endpointIndex = new ApiEndpointIndex<>();
+        exposedEndpoints.forEach(endpoint -> endpointIndex.add(endpoint.getHttpMethod(), endpoint.getPath(), endpoint));
+
+        Map<String, Set<String>> serviceDependencies = new TreeMap<>();
+        for (ApiCall call : outboundCalls) {
+            call.setTargetService(resolveTarget(call, endpointIndex));
+            serviceDependencies.computeIfAbsent(call.getService(), k -> new TreeSet<>()).add(call.getTargetService());
+        }
+
+        return new ServiceCallGraph(exposedEndpoints, outboundCalls, serviceDependencies);
+    }
+
+    private String resolveTarget(ApiCall call, ApiEndpointIndex<ApiEndpoint> endpointIndex) {
+        List<ApiEndpoint> matches = endpointIndex.lookup(call.getHttpMethod(), call.getPath());
+        Optional<ApiEndpoint> remote = matches.stream()
+                .filter(endpoint -> !endpoint.getService().equals(call.getService()))
+                .findFirst();
+        if (remote.isPresent()) {
+            return remote.get().getService();
+        }
+        if (!matches.isEmpty()) {
+            return call.getService();
+        }
+        return call.getBaseUrl().isEmpty() ? EXTERNAL : call.getBaseUrl();
+    }
+
+    private List<ApiEndpoint> extractEndpoints(String service, CompilationUnit cu) {
+        List<ApiEndpoint> endpoints = new ArrayList<>();
+
+        cu.findAll(ClassOrInterfaceDeclaration.class).stream()
+                .filter(this::isController)
+                .forEach(coid -> {
+                    String basePath = coid.getAnnotationByName("RequestMapping")
+                            .map(this::mappingPath)
+                            .orElse("");
+                    for (MethodDeclaration method : coid.getMethods()) {
+                        for (String[] mapping : methodMappings(method)) {
+                            ApiEndpoint endpoint = new ApiEndpoint(service, coid.getNameAsString(), method.getNameAsString(),
+                                    mapping[0], joinPaths(basePath, mapping[1]));
+                            endpoint.setQualifiedClassName(coid.getFullyQualifiedName().orElse(coid.getNameAsString()));
+                            endpoints.add(endpoint);
+                        }
+                    }
+                });
+
+        return endpoints;
+    }
+
+    private List<ApiCall> extractCalls(String service, CompilationUnit cu) {
+        List<ApiCall> calls = new ArrayList<>();
+
+        for (ClassOrInterfaceDeclaration coid : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+            String className = coid.getNameAsString();
+            String qualifiedClassName = coid.getFullyQualifiedName().orElse(className);
+
+            Optional<AnnotationExpr> feignClient = coid.getAnnotationByName("FeignClient");
+            if (coid.isInterface() && feignClient.isPresent()) {
+                String baseUrl = annotationAttribute(feignClient.get(), "url").orElse("");
+                String basePath = annotationAttribute(feignClient.get(), "path").orElse("");
+                for (MethodDeclaration method : coid.getMethods()) {
+                    for (String[] mapping : methodMappings(method)) {
+                        ApiCall feignCall = new ApiCall(service, className, method.getNameAsString(), "Feign",
+                                mapping[0], baseUrl, joinPaths(basePath, mapping[1]));
+                        feignCall.setQualifiedClassName(qualifiedClassName);
+                        calls.add(feignCall);
+                    }
+                }
+                continue;
+            }
+
+            String baseUrl = coid.findAll(MethodCallExpr.class).stream()
+                    .filter(call -> call.getNameAsString().equals("baseUrl") && call.getArguments().size() == 1)
+                    .map(call -> resolveString(call.getArgument(0), coid))
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse("");
+            Set<String> restTemplates = coid.getFields().stream()
+                    .filter(field -> REST_TEMPLATE_TYPES.contains(field.getElementType().asString()))
+                    .flatMap(field -> field.getVariables().stream())
+                    .map(VariableDeclarator::getNameAsString)
+                    .collect(Collectors.toSet());
+
+            for (MethodDeclaration method : coid.getMethods()) {
+                for (MethodCallExpr call : method.findAll(MethodCallExpr.class)) {
+                    ApiCall apiCall = webClientCall(call, service, className, method, baseUrl, coid);
+                    if (apiCall == null && !restTemplates.isEmpty()) {
+                        apiCall = restTemplateCall(call, service, className, method, restTemplates, coid);
+                    }
+                    if (apiCall != null) {
+                        apiCall.setQualifiedClassName(qualifiedClassName);
+                        calls.add(apiCall);
+                    }
+                }
+            }
+        }
+
+        return calls;
+    }
+
+    private ApiCall webClientCall(MethodCallExpr call, String service, String className, MethodDeclaration method,
+                                  String baseUrl, ClassOrInterfaceDeclaration coid) {
+        if (!call.getNameAsString().equals("uri") || call.getArguments().isEmpty()) {
+            return null;
+        }
+
+        String httpMethod = null;
+        Optional<Expression> scope = call.getScope();
+        while (scope.isPresent() && scope.get().isMethodCallExpr()) {
+            MethodCallExpr scopeCall = scope.get().asMethodCallExpr();
+            String name = scopeCall.getNameAsString();
+            if (WEB_CLIENT_METHODS.contains(name) && scopeCall.getArguments().isEmpty()) {
+                httpMethod = name.toUpperCase(Locale.ROOT);
+                break;
+            }
+            if (name.equals("method") && scopeCall.getArguments().size() == 1) {
+                httpMethod = httpMethodConstant(scopeCall.getArgument(0));
+                break;
+            }
+            scope = scopeCall.getScope();
+        }
+        if (httpMethod == null) {
+            return null;
+        }
+
+        Expression uriArgument = call.getArgument(0);
+        String uri;
+        if (uriArgument.isLambdaExpr()) {
+            uri = uriArgument.findAll(MethodCallExpr.class).stream()
+                    .filter(builderCall -> builderCall.getNameAsString().equals("path") && builderCall.getArguments().size() == 1)
+                    .map(builderCall -> resolveString(builderCall.getArgument(0), coid))
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+        } else {
+            uri = resolveString(uriArgument, coid);
+        }
+        if (uri == null) {
+            return null;
+        }
+        return newCall(service, className, method, "WebClient", httpMethod, baseUrl, uri);
+    }
+
+    private ApiCall restTemplateCall(MethodCallExpr call, String service, String className, MethodDeclaration method,
+                                     Set<String> restTemplates, ClassOrInterfaceDeclaration coid) {
+        String httpMethod = REST_TEMPLATE_METHODS.get(call.getNameAsString());
+        if (httpMethod == null || call.getArguments().isEmpty() || !call.getScope().isPresent()) {
+            return null;
+        }
+
+        Expression scope = call.getScope().get();
+        String scopeName = scope.isNameExpr() ? scope.asNameExpr().getNameAsString()
+                : scope.isFieldAccessExpr() ? scope.asFieldAccessExpr().getNameAsString()
+                : null;
+        if (scopeName == null || !restTemplates.contains(scopeName)) {
+            return null;
+        }
+
+        if (httpMethod.isEmpty()) {
+            httpMethod = call.getArguments().size() > 1 ? httpMethodConstant(call.getArgument(1)) : null;
+            if (httpMethod == null) {
+                return null;
+            }
+        }
+
+        String url = resolveString(call.getArgument(0), coid);
+        if (url == null) {
+            return null;
+        }
+        return newCall(service, className, method, "RestTemplate", httpMethod, "", url);
+    }
+
+    private ApiCall newCall(String service, String className, MethodDeclaration method, String client,
+                            String httpMethod, String baseUrl, String uri) {
+        String path = ApiEndpointIndex.stripHost(uri);
+        if (path.length() < uri.length()) {
+            baseUrl = uri.substring(0, uri.length() - path.length());
+        }
+        return new ApiCall(service, className, method.getNameAsString(), client, httpMethod, baseUrl, path);
+    }
+
+    private boolean isController(ClassOrInterfaceDeclaration coid) {
+        return coid.isAnnotationPresent("RestController") || coid.isAnnotationPresent("Controller");
+    }
+
+    private List<String[]> methodMappings(NodeWithAnnotations<?> node) {
+        List<String[]> mappings = new ArrayList<>();
+
+        for (AnnotationExpr annotation : node.getAnnotations()) {
+            String httpMethod = MAPPING_ANNOTATIONS.get(annotation.getNameAsString());
+            if (httpMethod == null) {
+                continue;
+            }
+            if (httpMethod.isEmpty()) {
+                httpMethod = annotationExpression(annotation, "method")
+                        .map(this::httpMethodConstant)
+                        .orElse(ApiEndpointIndex.ANY_METHOD);
+            }
+            mappings.add(new String[]{httpMethod, mappingPath(annotation)});
+        }
+
+        return mappings;
+    }
+
+    private String mappingPath(AnnotationExpr annotation) {
+        return annotationAttribute(annotation, "value")
+                .or(() -> annotationAttribute(annotation, "path"))
+                .orElse("");
+    }
+
+    private Optional<String> annotationAttribute(AnnotationExpr annotation, String name) {
+        return annotationExpression(annotation, name).map(expression -> {
+            if (expression.isArrayInitializerExpr()) {
+                // Only the first path of a multi-path mapping is reported
+                return expression.asArrayInitializerExpr().getValues().getFirst().orElse(null);
+            }
+            return expression;
+        }).map(expression -> resolveString(expression, null));
+    }
+
+    private Optional<Expression> annotationExpression(AnnotationExpr annotation, String name) {
+        if (annotation.isSingleMemberAnnotationExpr()) {
+            return "value".equals(name)
+                    ? Optional.of(annotation.asSingleMemberAnnotationExpr().getMemberValue())
+                    : Optional.empty();
+        }
+        if (annotation.isNormalAnnotationExpr()) {
+            return annotation.asNormalAnnotationExpr().getPairs().stream()
+                    .filter(pair -> pair.getNameAsString().equals(name))
+                    .map(MemberValuePair::getValue)
+                    .findFirst();
+        }
+        return Optional.empty();
+    }
+
+    private String httpMethodConstant(Expression expression) {
+        if (expression.isArrayInitializerExpr()) {
+            return expression.asArrayInitializerExpr().getValues().getFirst()
+                    .map(this::httpMethodConstant)
+                    .orElse(ApiEndpointIndex.ANY_METHOD);
+        }
+        if (expression.isFieldAccessExpr()) {
+            return expression.asFieldAccessExpr().getNameAsString();
+        }
+        if (expression.isNameExpr()) {
+            return expression.asNameExpr().getNameAsString();
+        }
+        return ApiEndpointIndex.ANY_METHOD;
+    }
+
+    /**
+     * Resolves a string expression to its literal value. Concatenated non-constant parts are
+     * replaced with a path variable so that "/api/items/" + id matches "/api/items/{id}".
+     */
+    private String resolveString(Expression expression, ClassOrInterfaceDeclaration coid) {
+        if (expression.isStringLiteralExpr()) {
+            return expression.asStringLiteralExpr().asString();
+        }
+        if (expression.isBinaryExpr() && expression.asBinaryExpr().getOperator() == BinaryExpr.Operator.PLUS) {
+            String left = resolveString(expression.asBinaryExpr().getLeft(), coid);
+            String right = resolveString(expression.asBinaryExpr().getRight(), coid);
+            return (left != null ? left : "{}") + (right != null ? right : "{}");
+        }
+        if (expression.isNameExpr() && coid != null) {
+            String name = expression.asNameExpr().getNameAsString();
+            return coid.getFieldByName(name)
+                    .flatMap(field -> field.getVariables().stream()
+                            .filter(variable -> variable.getNameAsString().equals(name))
+                            .findFirst())
+                    .flatMap(VariableDeclarator::getInitializer)
+                    .filter(Expression::isStringLiteralExpr)
+                    .map(initializer -> initializer.asStringLiteralExpr().asString())
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    private String joinPaths(String basePath, String path) {
+        String joined = (basePath.endsWith("/") ? basePath.substring(0, basePath.length() - 1) : basePath)
+                + (path.isEmpty() || path.startsWith("/") ? path : "/" + path);
+        return joined.isEmpty() ? "/" : joined;
+    }
+
+    /**
+     * Derives the owning service from the archive path, e.g. "bookstore/src/main/java/..." -> "bookstore".
+     */
+    private String serviceName(String filePath) {
+        int sourceRoot = filePath.indexOf("src/");
+        String modulePath = sourceRoot > 0 ? filePath.substring(0, sourceRoot - 1) : "";
+        if (modulePath.isEmpty()) {
+            return "application";
+        }
+        int lastSeparator = modulePath.lastIndexOf('/');
+        return lastSeparator >= 0 ? modulePath.substring(lastSeparator + 1) : modulePath;
+    }
+}
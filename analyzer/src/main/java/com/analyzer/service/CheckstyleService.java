@@ -0,0 +1,157 @@
+package com.analyzer.service;
+
+import com.analyzer.util.CheckstyleEngine;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Service
+public class CheckstyleService {
+
+    private static final String CACHE_NAME = "checkstyleResults";
+
+    // Cache entry type, so that lookups are typed
+    private static final class CachedViolations {
+        private final Map<String, Integer> violations;
+
+        private CachedViolations(Map<String, Integer> violations) {
+            this.violations = violations;
+        }
+    }
+
+    @Value("${analyzer.checkstyle.config:/sun_checks.xml}")
+    private String configLocation;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private volatile Configuration configuration;
+
+    /**
+     * Runs Checkstyle over the given sources and returns the violation count per rule for each file.
+     * <p>
+     * Files whose content was checked before are answered from the cache. The rest are split into one
+     * partition per core, balanced by size, and each partition is checked by its own engine.
+     */
+    public Map<String, Map<String, Integer>> checkSources(Map<String, byte[]> sources) {
+        Map<String, Map<String, Integer>> results = new ConcurrentHashMap<>();
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+
+        Map<String, String> cacheKeys = new ConcurrentHashMap<>();
+        List<String> pending = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : sources.entrySet()) {
+            String key = configLocation + ":" + contentHash(entry.getValue());
+            CachedViolations cached = cache != null ? cache.get(key, CachedViolations.class) : null;
+            if (cached != null) {
+                results.put(entry.getKey(), cached.violations);
+            } else {
+                cacheKeys.put(entry.getKey(), key);
+                pending.add(entry.getKey());
+            }
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
+
+        Configuration config;
+        try {
+            config = loadConfiguration();
+        } catch (CheckstyleException e) {
+            System.err.println("Error loading Checkstyle configuration " + configLocation + ": " + e.getMessage());
+            return results;
+        }
+
+        partition(pending, sources).parallelStream().forEach(files -> {
+            CheckstyleEngine engine;
+            try {
+                engine = new CheckstyleEngine(config);
+            } catch (CheckstyleException e) {
+                System.err.println("Error creating Checkstyle engine: " + e.getMessage());
+                return;
+            }
+            try {
+                for (String file : files) {
+                    try {
+                        String source = new String(sources.get(file), StandardCharsets.UTF_8);
+                        Map<String, Integer> violations = Collections.unmodifiableMap(engine.check(file, source));
+                        results.put(file, violations);
+                        if (cache != null) {
+                            cache.put(cacheKeys.get(file), new CachedViolations(violations));
+                        }
+                    } catch (Exception e) {
+                        System.err.println("Error running Checkstyle on " + file + ": " + e.getMessage());
+                    }
+                }
+            } finally {
+                engine.destroy();
+            }
+        });
+
+        return results;
+    }
+
+    private Configuration loadConfiguration() throws CheckstyleException {
+        Configuration loaded = configuration;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = configuration;
+                if (loaded == null) {
+                    loaded = ConfigurationLoader.loadConfiguration(configLocation,
+                            new PropertiesExpander(System.getProperties()),
+                            ConfigurationLoader.IgnoredModulesOptions.OMIT);
+                    configuration = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // Largest files first, each into the currently lightest partition
+    private List<List<String>> partition(List<String> files, Map<String, byte[]> sources) {
+        int count = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        List<List<String>> partitions = IntStream.range(0, count)
+                .mapToObj(i -> new ArrayList<String>())
+                .collect(Collectors.toList());
+        long[] sizes = new long[count];
+
+        files.sort(Comparator.comparingInt((String file) -> sources.get(file).length).reversed());
+        for (String file : files) {
+            int lightest = 0;
+            for (int i = 1; i < count; i++) {
+                if (sizes[i] < sizes[lightest]) {
+                    lightest = i;
+                }
+            }
+            partitions.get(lightest).add(file);
+            sizes[lightest] += sources.get(file).length;
+        }
+        return partitions;
+    }
+
+    private String contentHash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,71 +1,104 @@
 package com.analyzer.service;
 
 import com.analyzer.model.CodeQualityMetrics;
-import com.github.javaparser.StaticJavaParser;
+import com.analyzer.util.MethodMetricsStore;
+import com.analyzer.util.MethodMetricsVisitor;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.body.MethodDeclaration;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 
 @Service
 public class CodeQualityService {
 
-    public CodeQualityMetrics analyzeCodeQuality(Map<String, byte[]> projectFiles) {
-        int totalViolations = 0;
-        int totalComplexity = 0;
-        int totalMethods = 0;
-        int totalLines = 0;
-        int duplicateLines = 0;
+    private static final int HOTSPOT_COUNT = 10;
 
-        for (Map.Entry<String, byte[]> entry : projectFiles.entrySet()) {
-            if (entry.getKey().endsWith(".java")) {
-                try {
-                    CompilationUnit cu = StaticJavaParser.parse(new ByteArrayInputStream(entry.getValue()));
-                    List<MethodDeclaration> methods = cu.findAll(MethodDeclaration.class);
+    @Autowired
+    private CheckstyleService checkstyleService;
 
-                    totalMethods += methods.size();
-                    totalLines += cu.getEnd().get().line;
-
-                    for (MethodDeclaration method : methods) {
-                        totalComplexity += calculateCyclomaticComplexity(method);
+    public CodeQualityMetrics analyzeCodeQuality(Map<String, byte[]> projectFiles, Map<String, CompilationUnit> compilationUnits) {
+        // Each file is measured in one visitor pass on its own store; stores are merged afterwards
+        FileMetrics totals = compilationUnits.entrySet().parallelStream()
+                .map(entry -> {
+                    try {
+                        return analyzeCompilationUnit(entry.getValue());
+                    } catch (Exception e) {
+                        System.err.println("Error processing file " + entry.getKey() + ": " + e.getMessage());
+                        return new FileMetrics();
                     }
+                })
+                .collect(FileMetrics::new, FileMetrics::addAll, FileMetrics::addAll);
 
-                    totalViolations += checkViolations(cu);
-                    duplicateLines += checkDuplication(cu);
-                } catch (Exception e) {
-                    System.err.println("Error processing file " + entry.getKey() + ": " + e.getMessage());
-                }
+        Map<String, byte[]> sources = compilationUnits.keySet().stream()
+                .collect(Collectors.toMap(path -> path, projectFiles::get));
+        Map<String, Map<String, Integer>> checkstyleResults = checkstyleService.checkSources(sources);
+        Map<String, Integer> violationsByRule = new TreeMap<>();
+        Map<String, Integer> violationsByFile = new TreeMap<>();
+        checkstyleResults.forEach((file, rules) -> {
+            int fileViolations = 0;
+            for (Map.Entry<String, Integer> rule : rules.entrySet()) {
+                violationsByRule.merge(rule.getKey(), rule.getValue(), Integer::sum);
+                fileViolations += rule.getValue();
+            }
+            if (fileViolations > 0) {
+                violationsByFile.put(file, fileViolations);
             }
+        });
+        int violations = violationsByFile.values().stream().mapToInt(Integer::intValue).sum();
+
+        MethodMetricsStore methods = totals.methods;
+        int totalMethods = methods.size();
+        int maxNesting = 0;
+        for (int i = 0; i < totalMethods; i++) {
+            maxNesting = Math.max(maxNesting, methods.getNesting(i));
         }
 
-        double averageComplexity = totalMethods > 0 ? (double) totalComplexity / totalMethods : 0;
-        double duplicationRatio = totalLines > 0 ? (double) duplicateLines / totalLines : 0;
+        double averageComplexity = totalMethods > 0 ? (double) methods.totalCyclomatic() / totalMethods : 0;
+        double averageCognitiveComplexity = totalMethods > 0 ? (double) methods.totalCognitive() / totalMethods : 0;
+        double duplicationRatio = totals.lines > 0 ? (double) totals.duplicateLines / totals.lines : 0;
 
-        return new CodeQualityMetrics(totalViolations, averageComplexity, duplicationRatio);
+        CodeQualityMetrics metrics = new CodeQualityMetrics(violations, averageComplexity, duplicationRatio);
+        metrics.setCognitiveComplexity(averageCognitiveComplexity);
+        metrics.setMaxNestingDepth(maxNesting);
+        metrics.setHotspots(methods.topHotspots(HOTSPOT_COUNT));
+        metrics.setViolationsByRule(sortByCount(violationsByRule));
+        metrics.setViolationsByFile(sortByCount(violationsByFile));
+        return metrics;
     }
 
-    private int calculateCyclomaticComplexity(MethodDeclaration method) {
-        // This is a simplified calculation. A real implementation would be more comprehensive.
-        int complexity = 1; // base complexity
-        complexity += method.findAll(com.github.javaparser.ast.stmt.IfStmt.class).size();
-        complexity += method.findAll(com.github.javaparser.ast.stmt.ForStmt.class).size();
-        complexity += method.findAll(com.github.javaparser.ast.stmt.WhileStmt.class).size();
-        complexity += method.findAll(com.github.javaparser.ast.stmt.SwitchStmt.class).size();
-        complexity += method.findAll(com.github.javaparser.ast.expr.ConditionalExpr.class).size();
-        return complexity;
+    private FileMetrics analyzeCompilationUnit(CompilationUnit cu) {
+        FileMetrics fileMetrics = new FileMetrics();
+        cu.accept(new MethodMetricsVisitor(), new MethodMetricsVisitor.Context(fileMetrics.methods));
+        fileMetrics.lines = cu.getEnd().map(position -> position.line).orElse(0);
+        fileMetrics.duplicateLines = checkDuplication(cu);
+        return fileMetrics;
     }
 
-    private int checkViolations(CompilationUnit cu) {
-        // This is a placeholder. A real implementation would check for specific code style violations.
-        return 0;
+    private Map<String, Integer> sortByCount(Map<String, Integer> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
     }
 
     private int checkDuplication(CompilationUnit cu) {
         // This is a placeholder. A real implementation would check for code duplication.
         return 0;
     }
-}
\ No newline at end of file
+
+    private static class FileMetrics {
+        private final MethodMetricsStore methods = new MethodMetricsStore();
+        private int lines;
+        private int duplicateLines;
+
+        private void addAll(FileMetrics other) {
+            methods.addAll(other.methods);
+            lines += other.lines;
+            duplicateLines += other.duplicateLines;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.analyzer.service;
 
+import com.analyzer.model.ApiCall;
+import com.analyzer.model.ApiEndpoint;
 import com.analyzer.model.ApiInfo;
 import com.analyzer.model.ComparisonResult;
+import com.analyzer.model.ServiceCallGraph;
 import com.analyzer.model.UmlDiagram;
+import com.analyzer.util.ApiEndpointIndex;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -12,13 +16,16 @@ import java.util.stream.Collectors;
 public class ComparisonService {
 
     public ComparisonResult compare(List<UmlDiagram> extractedDiagrams, List<UmlDiagram> dabDiagrams,
-                                    List<ApiInfo> extractedApiInfo, List<ApiInfo> dabApiInfo) {
+                                    List<ApiInfo> extractedApiInfo, List<ApiInfo> dabApiInfo,
+                                    ServiceCallGraph callGraph, List<String> exposedApis, List<String> externalApiCalls) {
         List<String> discrepancies = new ArrayList<>();
         Map<String, Double> scores = new HashMap<>();
 
         scores.put("classDiagram", compareDiagrams(extractedDiagrams, dabDiagrams, "Class Diagram", discrepancies));
         scores.put("sequenceDiagram", compareDiagrams(extractedDiagrams, dabDiagrams, "Sequence Diagram", discrepancies));
         scores.put("apiInfo", compareApiInfo(extractedApiInfo, dabApiInfo, discrepancies));
+        scores.put("exposedApis", compareExposedApis(callGraph.getExposedEndpoints(), exposedApis, discrepancies));
+        scores.put("externalApiCalls", compareExternalApiCalls(callGraph.getOutboundCalls(), externalApiCalls, discrepancies));
 
         double overallScore = scores.values().stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
 
@@ -27,24 +34,28 @@ public class ComparisonService {
 
     private double compareDiagrams(List<UmlDiagram> extractedDiagrams, List<UmlDiagram> dabDiagrams,
                                    String diagramType, List<String> discrepancies) {
-        Optional<UmlDiagram> extractedDiagramOpt = extractedDiagrams.stream()
+        // Sequence diagrams are emitted per entry point, so all diagrams of a type are compared together
+        List<UmlDiagram> extractedOfType = extractedDiagrams.stream()
                 .filter(d -> d.getType().equals(diagramType))
-                .findFirst();
-        Optional<UmlDiagram> dabDiagramOpt = dabDiagrams.stream()
+                .collect(Collectors.toList());
+        List<UmlDiagram> dabOfType = dabDiagrams.stream()
                 .filter(d -> d.getType().equals(diagramType))
-                .findFirst();
+                .collect(Collectors.toList());
 
-        if (extractedDiagramOpt.isPresent() && dabDiagramOpt.isPresent()) {
-            return calculateDiagramSimilarity(extractedDiagramOpt.get(), dabDiagramOpt.get(), discrepancies);
+        if (!extractedOfType.isEmpty() && !dabOfType.isEmpty()) {
+            return calculateDiagramSimilarity(diagramType, extractedOfType, dabOfType, discrepancies);
         } else {
             discrepancies.add("Missing " + diagramType);
             return 0.0;
         }
     }
 
-    private double calculateDiagramSimilarity(UmlDiagram extractedDiagram, UmlDiagram dabDiagram, List<String> discrepancies) {
-        Set<String> extractedElements = parseUmlElements(extractedDiagram.getContent());
-        Set<String> dabElements = parseUmlElements(dabDiagram.getContent());
+    private double calculateDiagramSimilarity(String diagramType, List<UmlDiagram> extractedDiagrams,
+                                              List<UmlDiagram> dabDiagrams, List<String> discrepancies) {
+        Set<String> extractedElements = new HashSet<>();
+        extractedDiagrams.forEach(diagram -> extractedElements.addAll(parseUmlElements(diagram.getContent())));
+        Set<String> dabElements = new HashSet<>();
+        dabDiagrams.forEach(diagram -> dabElements.addAll(parseUmlElements(diagram.getContent())));
 
         Set<String> commonElements = new HashSet<>(extractedElements);
         commonElements.retainAll(dabElements);
@@ -56,11 +67,11 @@ public class ComparisonService {
         extraElements.removeAll(dabElements);
 
         for (String missing : missingElements) {
-            discrepancies.add("Missing element in " + extractedDiagram.getType() + ": " + missing);
+            discrepancies.add("Missing element in " + diagramType + ": " + missing);
         }
 
         for (String extra : extraElements) {
-            discrepancies.add("Extra element in " + extractedDiagram.getType() + ": " + extra);
+            discrepancies.add("Extra element in " + diagramType + ": " + extra);
         }
 
         return (double) commonElements.size() / dabElements.size();
@@ -97,4 +108,67 @@ public class ComparisonService {
 
         return dabSet.isEmpty() ? 1.0 : (double) commonApis.size() / dabSet.size();
     }
+
+    private double compareExposedApis(List<ApiEndpoint> endpoints, List<String> exposedApis, List<String> discrepancies) {
+        ApiEndpointIndex<ApiEndpoint> index = new ApiEndpointIndex<>();
+        endpoints.forEach(endpoint -> index.add(endpoint.getHttpMethod(), endpoint.getPath(), endpoint));
+
+        Set<ApiEndpoint> documented = new HashSet<>();
+        int matched = 0;
+        int total = 0;
+        for (String exposedApi : exposedApis) {
+            String[] entry = ApiEndpointIndex.parseEntry(exposedApi);
+            if (entry == null) {
+                continue;
+            }
+            total++;
+            List<ApiEndpoint> matches = index.lookup(entry[0], entry[1]);
+            if (matches.isEmpty()) {
+                discrepancies.add("Missing exposed API: " + entry[0] + " " + entry[1]);
+            } else {
+                matched++;
+                documented.addAll(matches);
+            }
+        }
+
+        for (ApiEndpoint endpoint : endpoints) {
+            if (!documented.contains(endpoint)) {
+                discrepancies.add("Undocumented exposed API: " + endpoint.getHttpMethod() + " " + endpoint.getPath());
+            }
+        }
+
+        return total == 0 ? 1.0 : (double) matched / total;
+    }
+
+    private double compareExternalApiCalls(List<ApiCall> calls, List<String> externalApiCalls, List<String> discrepancies) {
+        ApiEndpointIndex<ApiCall> index = new ApiEndpointIndex<>();
+        calls.forEach(call -> index.add(call.getHttpMethod(), call.getPath(), call));
+
+        Set<ApiCall> documented = Collections.newSetFromMap(new IdentityHashMap<>());
+        int matched = 0;
+        int total = 0;
+        for (String externalApiCall : externalApiCalls) {
+            String[] entry = ApiEndpointIndex.parseEntry(externalApiCall);
+            if (entry == null) {
+                continue;
+            }
+            total++;
+            List<ApiCall> matches = index.lookup(entry[0], entry[1]);
+            if (matches.isEmpty()) {
+                discrepancies.add("Missing external API call: " + entry[0] + " " + entry[1]);
+            } else {
+                matched++;
+                documented.addAll(matches);
+            }
+        }
+
+        for (ApiCall call : calls) {
+            if (!documented.contains(call)) {
+                discrepancies.add("Undocumented external API call: " + call.getHttpMethod() + " " + call.getPath()
+                        + " from " + call.getClassName() + "." + call.getMethodName());
+            }
+        }
+
+        return total == 0 ? 1.0 : (double) matched / total;
+    }
 }
\ No newline at end of file
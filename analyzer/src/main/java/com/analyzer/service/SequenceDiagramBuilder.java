@@ -0,0 +1,348 @@
+package com.analyzer.service;
+
+import com.analyzer.model.ApiCall;
+import com.analyzer.model.ApiEndpoint;
+import com.analyzer.model.ServiceCallGraph;
+import com.analyzer.model.UmlDiagram;
+import com.analyzer.util.SourceTypeResolver;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.github.javaparser.ast.Node.TreeTraversal.POSTORDER;
+
+/**
+ * Builds one sequence diagram per controller entry point by following method calls into
+ * other project classes. Each method's outgoing calls are summarized once and shared by all
+ * diagrams; within a diagram a method is expanded at most once and never deeper than
+ * {@link #MAX_DEPTH}, so the output stays linear in the number of call edges.
+ */
+class SequenceDiagramBuilder {
+
+    private static final int MAX_DEPTH = 6;
+    private static final int MAX_MESSAGES = 200;
+    private static final int MAX_ARGUMENT_LENGTH = 30;
+    private static final String CLIENT = "Client";
+
+    private final SourceTypeResolver typeResolver;
+    // Keyed by qualified class name and method name, so that classes of the same name do not share entries
+    private final Map<String, ApiEndpoint> endpointsByMethod = new HashMap<>();
+    private final Map<String, List<ApiCall>> outboundCallsByMethod = new HashMap<>();
+    private final Map<String, String> implementations = new HashMap<>();
+    private final Map<String, List<CallSite>> summaries = new ConcurrentHashMap<>();
+
+    SequenceDiagramBuilder(Map<String, CompilationUnit> compilationUnits, SourceTypeResolver typeResolver,
+                           ServiceCallGraph serviceCallGraph) {
+        this.typeResolver = typeResolver;
+
+        if (serviceCallGraph != null) {
+            serviceCallGraph.getExposedEndpoints().forEach(endpoint ->
+                    endpointsByMethod.putIfAbsent(endpoint.getQualifiedClassName() + "." + endpoint.getMethodName(), endpoint));
+            serviceCallGraph.getOutboundCalls().forEach(call ->
+                    outboundCallsByMethod.computeIfAbsent(call.getQualifiedClassName() + "." + call.getMethodName(),
+                            k -> new ArrayList<>()).add(call));
+        }
+
+        // Calls through an interface with exactly one project implementation follow that implementation
+        Map<String, Set<String>> implementors = new HashMap<>();
+        for (CompilationUnit cu : compilationUnits.values()) {
+            for (ClassOrInterfaceDeclaration coid : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+                if (coid.isInterface()) {
+                    continue;
+                }
+                coid.getFullyQualifiedName().ifPresent(className -> coid.getImplementedTypes().forEach(type ->
+                        typeResolver.resolve(type).ifPresent(interfaceName ->
+                                implementors.computeIfAbsent(interfaceName, k -> new HashSet<>()).add(className))));
+            }
+        }
+        implementors.forEach((interfaceName, classNames) -> {
+            if (classNames.size() == 1) {
+                implementations.put(interfaceName, classNames.iterator().next());
+            }
+        });
+    }
+
+    List<UmlDiagram> build(Map<String, CompilationUnit> compilationUnits) {
+        List<EntryPoint> entryPoints = new ArrayList<>();
+        for (CompilationUnit cu : compilationUnits.values()) {
+            for (ClassOrInterfaceDeclaration coid : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+                if (!coid.isAnnotationPresent("RestController") && !coid.isAnnotationPresent("Controller")) {
+                    continue;
+                }
+                String className = coid.getFullyQualifiedName().orElse(coid.getNameAsString());
+                coid.getMethods().stream()
+                        .filter(method -> method.getAnnotations().stream()
+                                .anyMatch(annotation -> annotation.getNameAsString().endsWith("Mapping")))
+                        .forEach(method -> entryPoints.add(new EntryPoint(className, method)));
+            }
+        }
+
+        return entryPoints.parallelStream()
+                .map(this::buildDiagram)
+                .sorted(Comparator.comparing(UmlDiagram::getName))
+                .collect(Collectors.toList());
+    }
+
+    private UmlDiagram buildDiagram(EntryPoint entryPoint) {
+        String participant = SourceTypeResolver.simpleName(entryPoint.className);
+        String methodName = entryPoint.method.getNameAsString();
+        ApiEndpoint endpoint = endpointsByMethod.get(entryPoint.className + "." + methodName);
+
+        StringBuilder content = new StringBuilder("sequenceDiagram\n");
+        appendMessage(content, CLIENT, participant,
+                endpoint != null ? endpoint.getHttpMethod() + " " + endpoint.getPath() : methodName + "()");
+        render(content, entryPoint.className, entryPoint.method, 1, new HashSet<>(), new int[]{MAX_MESSAGES});
+
+        UmlDiagram diagram = new UmlDiagram(UUID.randomUUID().toString(), "Sequence Diagram", content.toString());
+        diagram.setName(participant + "." + methodName);
+        return diagram;
+    }
+
+    private void render(StringBuilder content, String className, MethodDeclaration method, int depth,
+                        Set<String> expanded, int[] budget) {
+        String methodKey = methodKey(className, method);
+        if (depth > MAX_DEPTH || !expanded.add(methodKey)) {
+            return;
+        }
+
+        String participant = SourceTypeResolver.simpleName(className);
+        for (CallSite site : summaries.computeIfAbsent(methodKey, k -> summarize(className, method))) {
+            if (budget[0]-- <= 0) {
+                return;
+            }
+            appendMessage(content, participant, site.participant, site.label);
+            if (site.target != null) {
+                render(content, site.targetClass, site.target, depth + 1, expanded, budget);
+            }
+        }
+    }
+
+    private List<CallSite> summarize(String className, MethodDeclaration method) {
+        List<CallSite> callSites = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        // Post-order visits arguments and call-chain scopes before the calls that consume them
+        for (MethodCallExpr call : method.findAll(MethodCallExpr.class, POSTORDER)) {
+            Optional<String> targetClass = scopeType(call, className, method);
+            if (!targetClass.isPresent()) {
+                continue;
+            }
+
+            String calleeClass = implementations.getOrDefault(targetClass.get(), targetClass.get());
+            Optional<MethodDeclaration> callee = findMethod(calleeClass, call.getNameAsString(), call.getArguments().size());
+            if (!callee.isPresent() && !calleeClass.equals(targetClass.get())) {
+                calleeClass = targetClass.get();
+                callee = findMethod(calleeClass, call.getNameAsString(), call.getArguments().size());
+            }
+            if (callee.isPresent() ? isAccessor(callee.get()) : calleeClass.equals(className)) {
+                // Skip getters/setters, and unscoped calls to methods inherited from library types
+                continue;
+            }
+
+            String participant = SourceTypeResolver.simpleName(calleeClass);
+            String label = call.getNameAsString() + "(" + argumentLabel(call, callee.orElse(null)) + ")";
+            // Repeated identical calls from the same method are drawn once
+            if (seen.add(participant + ":" + label)) {
+                callSites.add(new CallSite(participant, label, calleeClass, callee.orElse(null)));
+            }
+        }
+
+        for (ApiCall apiCall : outboundCallsByMethod.getOrDefault(className + "." + method.getNameAsString(),
+                Collections.emptyList())) {
+            callSites.add(new CallSite(participantName(apiCall.getTargetService()),
+                    apiCall.getHttpMethod() + " " + apiCall.getPath(), null, null));
+        }
+
+        return callSites;
+    }
+
+    /**
+     * Determines the project type a call is made on: the current class for unscoped and this-calls,
+     * the declared type for parameters, locals and fields, or the named type for static calls.
+     */
+    private Optional<String> scopeType(MethodCallExpr call, String className, MethodDeclaration method) {
+        Optional<Expression> scope = call.getScope();
+        if (!scope.isPresent() || scope.get().isThisExpr()) {
+            return Optional.of(className);
+        }
+
+        String name;
+        if (scope.get().isNameExpr()) {
+            name = scope.get().asNameExpr().getNameAsString();
+        } else if (scope.get().isFieldAccessExpr() && scope.get().asFieldAccessExpr().getScope().isThisExpr()) {
+            return fieldType(className, scope.get().asFieldAccessExpr().getNameAsString());
+        } else {
+            return Optional.empty();
+        }
+
+        Optional<Type> variableType = method.getParameterByName(name).map(Parameter::getType);
+        if (!variableType.isPresent()) {
+            variableType = method.findAll(VariableDeclarator.class).stream()
+                    .filter(variable -> variable.getNameAsString().equals(name))
+                    .map(VariableDeclarator::getType)
+                    .findFirst();
+        }
+        if (variableType.isPresent()) {
+            return variableType.get().isVarType() ? Optional.empty() : typeResolver.resolve(variableType.get());
+        }
+
+        Optional<String> fieldType = fieldType(className, name);
+        if (fieldType.isPresent() || isLambdaParameter(call, name)) {
+            return fieldType;
+        }
+        return typeResolver.resolve(name, call);
+    }
+
+    private Optional<String> fieldType(String className, String fieldName) {
+        Optional<TypeDeclaration<?>> declaration = typeResolver.getDeclaration(className);
+        if (!declaration.isPresent()) {
+            return Optional.empty();
+        }
+        Optional<FieldDeclaration> field = declaration.get().getFieldByName(fieldName);
+        if (field.isPresent()) {
+            return typeResolver.resolve(field.get().getCommonType());
+        }
+        for (ClassOrInterfaceType superType : superTypes(declaration.get())) {
+            Optional<String> superClass = typeResolver.resolve(superType);
+            if (superClass.isPresent()) {
+                Optional<String> inherited = fieldType(superClass.get(), fieldName);
+                if (inherited.isPresent()) {
+                    return inherited;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<MethodDeclaration> findMethod(String className, String methodName, int argumentCount) {
+        Optional<TypeDeclaration<?>> declaration = typeResolver.getDeclaration(className);
+        if (!declaration.isPresent()) {
+            return Optional.empty();
+        }
+        Optional<MethodDeclaration> method = declaration.get().getMethodsByName(methodName).stream()
+                .filter(candidate -> candidate.getParameters().size() == argumentCount)
+                .findFirst();
+        if (method.isPresent()) {
+            return method;
+        }
+        for (ClassOrInterfaceType superType : superTypes(declaration.get())) {
+            Optional<MethodDeclaration> inherited = typeResolver.resolve(superType)
+                    .flatMap(superClass -> findMethod(superClass, methodName, argumentCount));
+            if (inherited.isPresent()) {
+                return inherited;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<ClassOrInterfaceType> superTypes(TypeDeclaration<?> declaration) {
+        if (!declaration.isClassOrInterfaceDeclaration()) {
+            return Collections.emptyList();
+        }
+        ClassOrInterfaceDeclaration coid = declaration.asClassOrInterfaceDeclaration();
+        List<ClassOrInterfaceType> superTypes = new ArrayList<>(coid.getExtendedTypes());
+        superTypes.addAll(coid.getImplementedTypes());
+        return superTypes;
+    }
+
+    private boolean isLambdaParameter(Node node, String name) {
+        Optional<Node> current = node.getParentNode();
+        while (current.isPresent() && !(current.get() instanceof MethodDeclaration)) {
+            if (current.get() instanceof LambdaExpr
+                    && ((LambdaExpr) current.get()).getParameters().stream()
+                    .anyMatch(parameter -> parameter.getNameAsString().equals(name))) {
+                return true;
+            }
+            current = current.get().getParentNode();
+        }
+        return false;
+    }
+
+    /**
+     * A getter or setter is a single statement that returns a field or assigns a parameter to one.
+     */
+    private boolean isAccessor(MethodDeclaration method) {
+        List<Statement> statements = method.getBody().map(BlockStmt::getStatements).orElse(null);
+        if (statements == null || statements.size() != 1) {
+            return false;
+        }
+        Statement statement = statements.get(0);
+        if (statement.isReturnStmt()) {
+            return statement.asReturnStmt().getExpression()
+                    .map(expression -> expression.isNameExpr() || isThisField(expression))
+                    .orElse(false);
+        }
+        if (statement.isExpressionStmt() && statement.asExpressionStmt().getExpression().isAssignExpr()) {
+            AssignExpr assignment = statement.asExpressionStmt().getExpression().asAssignExpr();
+            return assignment.getValue().isNameExpr()
+                    && (assignment.getTarget().isNameExpr() || isThisField(assignment.getTarget()));
+        }
+        return false;
+    }
+
+    private boolean isThisField(Expression expression) {
+        return expression.isFieldAccessExpr() && expression.asFieldAccessExpr().getScope().isThisExpr();
+    }
+
+    private String argumentLabel(MethodCallExpr call, MethodDeclaration callee) {
+        if (callee != null) {
+            return callee.getParameters().stream()
+                    .map(Parameter::getNameAsString)
+                    .collect(Collectors.joining(", "));
+        }
+        String arguments = call.getArguments().stream()
+                .map(argument -> argument instanceof NameExpr ? argument.toString() : "...")
+                .collect(Collectors.joining(", "));
+        return arguments.length() > MAX_ARGUMENT_LENGTH ? "..." : arguments;
+    }
+
+    private void appendMessage(StringBuilder content, String from, String to, String label) {
+        content.append("    ").append(from).append("->>").append(to).append(": ").append(label).append("\n");
+    }
+
+    private String participantName(String service) {
+        String name = service.replaceAll("^[a-zA-Z]+://", "").replaceAll("[^A-Za-z0-9_]", "_");
+        return name.isEmpty() ? "external" : name;
+    }
+
+    private String methodKey(String className, MethodDeclaration method) {
+        return className + "#" + method.getSignature().asString();
+    }
+
+    private static class EntryPoint {
+        private final String className;
+        private final MethodDeclaration method;
+
+        EntryPoint(String className, MethodDeclaration method) {
+            this.className = className;
+            this.method = method;
+        }
+    }
+
+    private static class CallSite {
+        private final String participant;
+        private final String label;
+        private final String targetClass;
+        private final MethodDeclaration target;
+
+        CallSite(String participant, String label, String targetClass, MethodDeclaration target) {
+            this.participant = participant;
+            this.label = label;
+            this.targetClass = targetClass;
+            this.target = target;
+        }
+    }
+}
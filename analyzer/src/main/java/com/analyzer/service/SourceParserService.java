@@ -0,0 +1,38 @@
+package com.analyzer.service;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class SourceParserService {
+
+    // JavaParser instances are not thread-safe, so each worker keeps its own
+    private final ThreadLocal<JavaParser> parsers = ThreadLocal.withInitial(JavaParser::new);
+
+    /**
+     * Parses every .java entry of the project once, in parallel, so extractors can share the ASTs
+     * instead of re-parsing the sources. Files that fail to parse are skipped.
+     */
+    public Map<String, CompilationUnit> parseJavaSources(Map<String, byte[]> projectFiles) {
+        Map<String, CompilationUnit> compilationUnits = new ConcurrentHashMap<>();
+
+        projectFiles.entrySet().parallelStream()
+                .filter(entry -> entry.getKey().endsWith(".java"))
+                .forEach(entry -> {
+                    ParseResult<CompilationUnit> result = parsers.get().parse(new ByteArrayInputStream(entry.getValue()));
+                    if (result.isSuccessful() && result.getResult().isPresent()) {
+                        compilationUnits.put(entry.getKey(), result.getResult().get());
+                    } else {
+                        System.err.println("Error processing file " + entry.getKey() + ": " + result.getProblems());
+                    }
+                });
+
+        return compilationUnits;
+    }
+}
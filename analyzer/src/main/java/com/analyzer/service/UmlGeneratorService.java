@@ -1,52 +1,78 @@
 package com.analyzer.service;
 
+import com.analyzer.model.ServiceCallGraph;
 import com.analyzer.model.UmlDiagram;
-import com.github.javaparser.StaticJavaParser;
+import com.analyzer.util.SourceTypeResolver;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class UmlGeneratorService {
 
-    public List<UmlDiagram> generateUmlDiagrams(Map<String, byte[]> projectFiles) {
+    public List<UmlDiagram> generateUmlDiagrams(Map<String, CompilationUnit> compilationUnits,
+                                                ServiceCallGraph serviceCallGraph) {
         List<UmlDiagram> diagrams = new ArrayList<>();
         StringBuilder classDiagramContent = new StringBuilder("classDiagram\n");
-        StringBuilder sequenceDiagramContent = new StringBuilder("sequenceDiagram\n");
-        Map<String, Set<String>> classRelations = new HashMap<>();
-
-        for (Map.Entry<String, byte[]> entry : projectFiles.entrySet()) {
-            if (entry.getKey().endsWith(".java")) {
-                try {
-                    CompilationUnit cu = StaticJavaParser.parse(new String(entry.getValue()));
-                    processCompilationUnit(cu, classDiagramContent, sequenceDiagramContent, classRelations);
-                } catch (Exception e) {
-                    System.err.println("Error processing file " + entry.getKey() + ": " + e.getMessage());
-                }
-            }
-        }
+        Map<String, Set<String>> classRelations = new TreeMap<>();
+
+        SourceTypeResolver typeResolver = new SourceTypeResolver(compilationUnits);
+
+        List<ClassDiagramPart> parts = compilationUnits.entrySet().parallelStream()
+                .map(entry -> {
+                    try {
+                        return processCompilationUnit(entry.getKey(), entry.getValue(), typeResolver);
+                    } catch (Exception e) {
+                        System.err.println("Error processing file " + entry.getKey() + ": " + e.getMessage());
+                        return null;
+                    }
+                })
+                .collect(Collectors.toList());
+
+        // Merge in a fixed order so the diagram text does not depend on thread scheduling
+        parts.stream()
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(part -> part.sortKey))
+                .forEach(part -> {
+                    classDiagramContent.append(part.classContent);
+                    part.relations.forEach((className, related) ->
+                            classRelations.computeIfAbsent(className, k -> new TreeSet<>()).addAll(related));
+                });
 
         // Add relationships to class diagram
         for (Map.Entry<String, Set<String>> entry : classRelations.entrySet()) {
             for (String relatedClass : entry.getValue()) {
-                classDiagramContent.append("    ").append(entry.getKey()).append(" --> ").append(relatedClass).append("\n");
+                classDiagramContent.append("    ").append(nodeId(entry.getKey())).append(" --> ")
+                        .append(nodeId(relatedClass)).append("\n");
             }
         }
 
         diagrams.add(new UmlDiagram(UUID.randomUUID().toString(), "Class Diagram", classDiagramContent.toString()));
-        diagrams.add(new UmlDiagram(UUID.randomUUID().toString(), "Sequence Diagram", sequenceDiagramContent.toString()));
+
+        // One sequence diagram per controller entry point
+        List<UmlDiagram> sequenceDiagrams = new SequenceDiagramBuilder(compilationUnits, typeResolver, serviceCallGraph)
+                .build(compilationUnits);
+        if (sequenceDiagrams.isEmpty()) {
+            diagrams.add(new UmlDiagram(UUID.randomUUID().toString(), "Sequence Diagram", "sequenceDiagram\n"));
+        } else {
+            diagrams.addAll(sequenceDiagrams);
+        }
 
         return diagrams;
     }
 
-    private void processCompilationUnit(CompilationUnit cu, StringBuilder classDiagramContent,
-                                        StringBuilder sequenceDiagramContent, Map<String, Set<String>> classRelations) {
+    private ClassDiagramPart processCompilationUnit(String filePath, CompilationUnit cu, SourceTypeResolver typeResolver) {
+        StringBuilder classDiagramContent = new StringBuilder();
+        Map<String, Set<String>> classRelations = new HashMap<>();
+
         cu.findAll(ClassOrInterfaceDeclaration.class).forEach(coid -> {
-            String className = coid.getNameAsString();
-            classDiagramContent.append("    class ").append(className).append(" {\n");
+            // Classes of the same name in different packages stay separate nodes, each labelled with its simple name
+            String className = coid.getFullyQualifiedName().orElse(coid.getNameAsString());
+            classDiagramContent.append("    class ").append(nodeId(className))
+                    .append("[\"").append(coid.getNameAsString()).append("\"] {\n");
 
             if (coid.isInterface()) {
                 classDiagramContent.append("        <<interface>>\n");
@@ -73,63 +99,59 @@ public class UmlGeneratorService {
                         .append(") ")
                         .append(method.getType().asString())
                         .append("\n");
-
-                // Generate sequence diagram
-                generateSequenceDiagram(sequenceDiagramContent, className, method);
             });
 
             classDiagramContent.append("    }\n");
 
             // Process class relationships
-            processClassRelationships(coid, classRelations);
+            processClassRelationships(coid, classRelations, typeResolver);
         });
+
+        return new ClassDiagramPart(filePath, classDiagramContent.toString(), classRelations);
     }
 
-    private void processClassRelationships(ClassOrInterfaceDeclaration coid, Map<String, Set<String>> classRelations) {
-        String className = coid.getNameAsString();
-        Set<String> relations = new HashSet<>();
+    private void processClassRelationships(ClassOrInterfaceDeclaration coid, Map<String, Set<String>> classRelations,
+                                           SourceTypeResolver typeResolver) {
+        String className = coid.getFullyQualifiedName().orElse(coid.getNameAsString());
+        Set<String> relations = new TreeSet<>();
 
         // Check superclass
-        coid.getExtendedTypes().forEach(extendedType -> relations.add(extendedType.getNameAsString()));
+        coid.getExtendedTypes().forEach(extendedType -> typeResolver.collectSourceTypes(extendedType, relations));
 
         // Check implemented interfaces
-        coid.getImplementedTypes().forEach(implementedType -> relations.add(implementedType.getNameAsString()));
+        coid.getImplementedTypes().forEach(implementedType -> typeResolver.collectSourceTypes(implementedType, relations));
 
         // Check field types
-        coid.getFields().forEach(field -> relations.add(field.getCommonType().asString()));
+        coid.getFields().forEach(field -> typeResolver.collectSourceTypes(field.getCommonType(), relations));
 
         // Check method return types and parameter types
         coid.getMethods().forEach(method -> {
-            relations.add(method.getType().asString());
-            method.getParameters().forEach(param -> relations.add(param.getType().asString()));
+            typeResolver.collectSourceTypes(method.getType(), relations);
+            method.getParameters().forEach(param -> typeResolver.collectSourceTypes(param.getType(), relations));
         });
 
-        // Remove self-references and common types
+        // Remove self-references
         relations.remove(className);
-        relations.removeIf(this::isCommonType);
 
         if (!relations.isEmpty()) {
             classRelations.put(className, relations);
         }
     }
 
-    private boolean isCommonType(String type) {
-        Set<String> commonTypes = new HashSet<>(Arrays.asList(
-                "String", "Integer", "Long", "Double", "Float", "Boolean", "Byte", "Short", "Character",
-                "Object", "List", "Map", "Set", "Collection"
-        ));
-        return commonTypes.contains(type) || type.startsWith("java.") || type.startsWith("javax.");
+    // Mermaid class ids are plain words, so the package dots become underscores
+    private static String nodeId(String qualifiedName) {
+        return qualifiedName.replaceAll("[^A-Za-z0-9_]", "_");
     }
 
-    private void generateSequenceDiagram(StringBuilder sequenceDiagramContent, String className, MethodDeclaration method) {
-        sequenceDiagramContent.append("    ").append(className).append("->").append(className).append(": ")
-                .append(method.getNameAsString()).append("(");
-        method.getParameters().forEach(param ->
-                sequenceDiagramContent.append(param.getType().asString()).append(" ").append(param.getNameAsString()).append(", ")
-        );
-        if (method.getParameters().size() > 0) {
-            sequenceDiagramContent.setLength(sequenceDiagramContent.length() - 2); // Remove last ", "
+    private static class ClassDiagramPart {
+        private final String sortKey;
+        private final String classContent;
+        private final Map<String, Set<String>> relations;
+
+        ClassDiagramPart(String sortKey, String classContent, Map<String, Set<String>> relations) {
+            this.sortKey = sortKey;
+            this.classContent = classContent;
+            this.relations = relations;
         }
-        sequenceDiagramContent.append(")\n");
     }
-}
\ No newline at end of file
+}
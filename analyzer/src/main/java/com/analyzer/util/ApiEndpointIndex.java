@@ -0,0 +1,134 @@
+package com.analyzer.util;
+
+import java.util.*;
+
+/**
+ * Hash index of HTTP endpoints keyed by method and normalized path template.
+ * Exact templates are resolved with a single map lookup; templates that only match
+ * through path variables fall back to a bucket of entries with the same segment count.
+ */
+public class ApiEndpointIndex<T> {
+
+    public static final String ANY_METHOD = "*";
+    private static final String VARIABLE = "{}";
+
+    private final Map<String, List<T>> exactIndex = new HashMap<>();
+    private final Map<String, List<Entry<T>>> segmentIndex = new HashMap<>();
+
+    public void add(String httpMethod, String path, T value) {
+        String method = normalizeMethod(httpMethod);
+        String normalizedPath = normalizePath(path);
+        String[] segments = segments(normalizedPath);
+
+        exactIndex.computeIfAbsent(key(method, normalizedPath), k -> new ArrayList<>()).add(value);
+        segmentIndex.computeIfAbsent(method + " " + segments.length, k -> new ArrayList<>())
+                .add(new Entry<>(segments, value));
+    }
+
+    public List<T> lookup(String httpMethod, String path) {
+        String method = normalizeMethod(httpMethod);
+        String normalizedPath = normalizePath(path);
+
+        List<T> matches = new ArrayList<>();
+        matches.addAll(exactIndex.getOrDefault(key(method, normalizedPath), Collections.emptyList()));
+        if (!ANY_METHOD.equals(method)) {
+            matches.addAll(exactIndex.getOrDefault(key(ANY_METHOD, normalizedPath), Collections.emptyList()));
+        }
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+
+        String[] segments = segments(normalizedPath);
+        collectTemplateMatches(method + " " + segments.length, segments, matches);
+        if (!ANY_METHOD.equals(method)) {
+            collectTemplateMatches(ANY_METHOD + " " + segments.length, segments, matches);
+        }
+        return matches;
+    }
+
+    public boolean contains(String httpMethod, String path) {
+        return !lookup(httpMethod, path).isEmpty();
+    }
+
+    private void collectTemplateMatches(String bucketKey, String[] segments, List<T> matches) {
+        for (Entry<T> entry : segmentIndex.getOrDefault(bucketKey, Collections.emptyList())) {
+            if (templateMatches(entry.segments, segments)) {
+                matches.add(entry.value);
+            }
+        }
+    }
+
+    private boolean templateMatches(String[] template, String[] segments) {
+        for (int i = 0; i < template.length; i++) {
+            if (!template[i].equals(segments[i]) && !VARIABLE.equals(template[i]) && !VARIABLE.equals(segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits a DAB entry such as "GET https://host/api/items/{id} - Description" into its
+     * HTTP method and path. Returns null when the entry does not start with a method and a URL.
+     */
+    public static String[] parseEntry(String entry) {
+        if (entry == null) {
+            return null;
+        }
+        String[] tokens = entry.trim().split("\\s+");
+        if (tokens.length < 2 || !tokens[1].contains("/")) {
+            return null;
+        }
+        return new String[]{normalizeMethod(tokens[0]), stripHost(tokens[1])};
+    }
+
+    public static String stripHost(String url) {
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) {
+            return url;
+        }
+        int pathStart = url.indexOf('/', schemeEnd + 3);
+        return pathStart < 0 ? "/" : url.substring(pathStart);
+    }
+
+    public static String normalizeMethod(String httpMethod) {
+        return httpMethod == null || httpMethod.isEmpty() ? ANY_METHOD : httpMethod.toUpperCase(Locale.ROOT);
+    }
+
+    public static String normalizePath(String path) {
+        if (path == null) {
+            return "/";
+        }
+        String normalized = stripHost(path.trim());
+        int queryStart = normalized.indexOf('?');
+        if (queryStart >= 0) {
+            normalized = normalized.substring(0, queryStart);
+        }
+        normalized = normalized.replaceAll("\\{[^}]*}", VARIABLE).replaceAll("/+", "/");
+        if (!normalized.startsWith("/")) {
+            normalized = "/" + normalized;
+        }
+        if (normalized.length() > 1 && normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String method, String normalizedPath) {
+        return method + " " + normalizedPath;
+    }
+
+    private static String[] segments(String normalizedPath) {
+        return "/".equals(normalizedPath) ? new String[0] : normalizedPath.substring(1).split("/");
+    }
+
+    private static class Entry<T> {
+        private final String[] segments;
+        private final T value;
+
+        private Entry(String[] segments, T value) {
+            this.segments = segments;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.analyzer.util;
+
+import com.puppycrawl.tools.checkstyle.DefaultContext;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.MessageDispatcher;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+/**
+ * One worker's instance of the Checkstyle file set checks described by a configuration.
+ * <p>
+ * Checker only accepts files on disk, so this engine instantiates the checks below the root module
+ * itself and feeds them in-memory {@link FileText}s. Root level filters are not applied, and checks
+ * that read the file or its directory from disk are skipped. Instances are not thread-safe;
+ * every worker thread builds its own.
+ */
+public class CheckstyleEngine {
+
+    private static final Set<String> DISK_BOUND_MODULES = Set.of("JavadocPackage", "NewlineAtEndOfFile");
+    private static final MessageDispatcher NO_DISPATCHER = new MessageDispatcher() {
+        @Override
+        public void fireFileStarted(String fileName) {
+        }
+
+        @Override
+        public void fireFileFinished(String fileName) {
+        }
+
+        @Override
+        public void fireErrors(String fileName, SortedSet<Violation> errors) {
+        }
+    };
+
+    private final List<FileSetCheck> fileSetChecks = new ArrayList<>();
+
+    public CheckstyleEngine(Configuration configuration) throws CheckstyleException {
+        PackageObjectFactory moduleFactory = new PackageObjectFactory(
+                FileSetCheck.class.getPackage().getName(), CheckstyleEngine.class.getClassLoader());
+
+        DefaultContext context = new DefaultContext();
+        context.add("charset", StandardCharsets.UTF_8.name());
+        context.add("moduleFactory", moduleFactory);
+        context.add("severity", property(configuration, "severity", "error"));
+        context.add("tabWidth", property(configuration, "tabWidth", "8"));
+
+        for (Configuration child : configuration.getChildren()) {
+            if (DISK_BOUND_MODULES.contains(child.getName())) {
+                continue;
+            }
+            Object module = moduleFactory.createModule(child.getName());
+            if (module instanceof FileSetCheck) {
+                FileSetCheck check = (FileSetCheck) module;
+                check.contextualize(context);
+                check.configure(child);
+                check.init();
+                check.setMessageDispatcher(NO_DISPATCHER);
+                check.beginProcessing(StandardCharsets.UTF_8.name());
+                fileSetChecks.add(check);
+            }
+        }
+    }
+
+    /**
+     * Runs every check over the given source and returns the number of violations per rule.
+     */
+    public Map<String, Integer> check(String path, String source) throws CheckstyleException {
+        List<String> lines = new ArrayList<>(Arrays.asList(source.split("\\r?\\n|\\r", -1)));
+        // A trailing line break does not start another line
+        if (lines.size() > 1 && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        FileText fileText = new FileText(new File(path), lines);
+        Map<String, Integer> violationsByRule = new TreeMap<>();
+        for (FileSetCheck check : fileSetChecks) {
+            for (Violation violation : check.process(fileText.getFile(), fileText)) {
+                violationsByRule.merge(ruleName(violation), 1, Integer::sum);
+            }
+        }
+        return violationsByRule;
+    }
+
+    public void destroy() {
+        for (FileSetCheck check : fileSetChecks) {
+            check.finishProcessing();
+            check.destroy();
+        }
+        fileSetChecks.clear();
+    }
+
+    private static String ruleName(Violation violation) {
+        if (violation.getModuleId() != null) {
+            return violation.getModuleId();
+        }
+        String name = violation.getSourceName().substring(violation.getSourceName().lastIndexOf('.') + 1);
+        return name.endsWith("Check") ? name.substring(0, name.length() - "Check".length()) : name;
+    }
+
+    private static String property(Configuration configuration, String name, String defaultValue) {
+        try {
+            return Arrays.asList(configuration.getPropertyNames()).contains(name)
+                    ? configuration.getProperty(name)
+                    : defaultValue;
+        } catch (CheckstyleException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.analyzer.util;
 
 import com.analyzer.model.AnalysisResult;
+import com.analyzer.model.ApiCall;
 import com.analyzer.model.ApiInfo;
 import com.analyzer.model.DatabaseChange;
+import com.analyzer.model.MethodHotspot;
+import com.analyzer.model.ServiceCallGraph;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.springframework.stereotype.Component;
@@ -49,6 +52,39 @@ public class CsvExporter {
             csvPrinter.printRecord("Violations", analysisResult.getCodeQualityMetrics().getViolations());
             csvPrinter.printRecord("Complexity", analysisResult.getCodeQualityMetrics().getComplexity());
             csvPrinter.printRecord("Duplication", analysisResult.getCodeQualityMetrics().getDuplication());
+            csvPrinter.printRecord("Cognitive Complexity", analysisResult.getCodeQualityMetrics().getCognitiveComplexity());
+            csvPrinter.printRecord("Max Nesting Depth", analysisResult.getCodeQualityMetrics().getMaxNestingDepth());
+            csvPrinter.println();
+
+            // Write Complexity Hotspots
+            csvPrinter.printRecord("Complexity Hotspots");
+            csvPrinter.printRecord("Class Name", "Method Name", "Line", "Cyclomatic", "Cognitive", "Nesting", "Lines of Code");
+            for (MethodHotspot hotspot : analysisResult.getCodeQualityMetrics().getHotspots()) {
+                csvPrinter.printRecord(
+                        hotspot.getClassName(),
+                        hotspot.getMethodName(),
+                        hotspot.getLine(),
+                        hotspot.getCyclomaticComplexity(),
+                        hotspot.getCognitiveComplexity(),
+                        hotspot.getNestingDepth(),
+                        hotspot.getLinesOfCode()
+                );
+            }
+            csvPrinter.println();
+
+            // Write Checkstyle Violations
+            csvPrinter.printRecord("Violations by Rule");
+            csvPrinter.printRecord("Rule", "Violations");
+            for (Map.Entry<String, Integer> entry : analysisResult.getCodeQualityMetrics().getViolationsByRule().entrySet()) {
+                csvPrinter.printRecord(entry.getKey(), entry.getValue());
+            }
+            csvPrinter.println();
+
+            csvPrinter.printRecord("Violations by File");
+            csvPrinter.printRecord("File", "Violations");
+            for (Map.Entry<String, Integer> entry : analysisResult.getCodeQualityMetrics().getViolationsByFile().entrySet()) {
+                csvPrinter.printRecord(entry.getKey(), entry.getValue());
+            }
             csvPrinter.println();
 
             // Write Database Changes
@@ -78,6 +114,25 @@ public class CsvExporter {
             for (String call : analysisResult.getExternalApiCalls()) {
                 csvPrinter.printRecord(call);
             }
+
+            // Write Service Call Graph
+            ServiceCallGraph callGraph = analysisResult.getServiceCallGraph();
+            if (callGraph != null) {
+                csvPrinter.println();
+                csvPrinter.printRecord("Service Call Graph");
+                csvPrinter.printRecord("Service", "Class Name", "Method Name", "Client", "HTTP Method", "URL", "Target Service");
+                for (ApiCall call : callGraph.getOutboundCalls()) {
+                    csvPrinter.printRecord(
+                            call.getService(),
+                            call.getClassName(),
+                            call.getMethodName(),
+                            call.getClient(),
+                            call.getHttpMethod(),
+                            call.getBaseUrl() + call.getPath(),
+                            call.getTargetService()
+                    );
+                }
+            }
         }
 
         return stringWriter.toString();
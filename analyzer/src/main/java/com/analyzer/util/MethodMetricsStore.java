@@ -0,0 +1,129 @@
+package com.analyzer.util;
+
+import com.analyzer.model.MethodHotspot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only store of per-method metrics. Values are kept in a single int array with a fixed
+ * stride instead of one object per method, so large projects cost a few bytes per method.
+ */
+public class MethodMetricsStore {
+
+    private static final int LINE = 0;
+    private static final int CYCLOMATIC = 1;
+    private static final int COGNITIVE = 2;
+    private static final int NESTING = 3;
+    private static final int LOC = 4;
+    private static final int STRIDE = 5;
+
+    private String[] classNames;
+    private String[] methodNames;
+    private int[] values;
+    private int size;
+
+    public MethodMetricsStore() {
+        this(16);
+    }
+
+    public MethodMetricsStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.classNames = new String[capacity];
+        this.methodNames = new String[capacity];
+        this.values = new int[capacity * STRIDE];
+    }
+
+    public void add(String className, String methodName, int line, int cyclomatic, int cognitive, int nesting, int loc) {
+        ensureCapacity(size + 1);
+        classNames[size] = className;
+        methodNames[size] = methodName;
+        int offset = size * STRIDE;
+        values[offset + LINE] = line;
+        values[offset + CYCLOMATIC] = cyclomatic;
+        values[offset + COGNITIVE] = cognitive;
+        values[offset + NESTING] = nesting;
+        values[offset + LOC] = loc;
+        size++;
+    }
+
+    public void addAll(MethodMetricsStore other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.classNames, 0, classNames, size, other.size);
+        System.arraycopy(other.methodNames, 0, methodNames, size, other.size);
+        System.arraycopy(other.values, 0, values, size * STRIDE, other.size * STRIDE);
+        size += other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCyclomatic(int index) {
+        return values[index * STRIDE + CYCLOMATIC];
+    }
+
+    public int getCognitive(int index) {
+        return values[index * STRIDE + COGNITIVE];
+    }
+
+    public int getNesting(int index) {
+        return values[index * STRIDE + NESTING];
+    }
+
+    public int getLinesOfCode(int index) {
+        return values[index * STRIDE + LOC];
+    }
+
+    public long totalCyclomatic() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += getCyclomatic(i);
+        }
+        return total;
+    }
+
+    public long totalCognitive() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += getCognitive(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the n methods with the highest cognitive complexity, ties broken by cyclomatic complexity.
+     */
+    public List<MethodHotspot> topHotspots(int n) {
+        if (n <= 0 || size == 0) {
+            return new ArrayList<>();
+        }
+        return IntStream.range(0, size)
+                .boxed()
+                .sorted((a, b) -> getCognitive(a) != getCognitive(b)
+                        ? Integer.compare(getCognitive(b), getCognitive(a))
+                        : Integer.compare(getCyclomatic(b), getCyclomatic(a)))
+                .limit(n)
+                .map(this::toHotspot)
+                .collect(Collectors.toList());
+    }
+
+    private MethodHotspot toHotspot(int index) {
+        int offset = index * STRIDE;
+        return new MethodHotspot(classNames[index], methodNames[index], values[offset + LINE],
+                values[offset + CYCLOMATIC], values[offset + COGNITIVE], values[offset + NESTING], values[offset + LOC]);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= classNames.length) {
+            return;
+        }
+        int capacity = Math.max(required, classNames.length * 2);
+        classNames = Arrays.copyOf(classNames, capacity);
+        methodNames = Arrays.copyOf(methodNames, capacity);
+        values = Arrays.copyOf(values, capacity * STRIDE);
+    }
+}
@@ -0,0 +1,228 @@
+package com.analyzer.util;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.SwitchExpr;
+import com.github.javaparser.ast.stmt.*;
+import com.github.javaparser.ast.visitor.GenericVisitorAdapter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Computes cyclomatic complexity, cognitive complexity, maximum nesting depth and lines of code
+ * for every method of a compilation unit in a single walk of the AST.
+ * <p>
+ * Cyclomatic complexity is 1 plus one per if, loop, catch, case label, ternary and {@code &&}/{@code ||}.
+ * Cognitive complexity follows the usual rules: structures add 1 plus the current nesting level,
+ * else-if and else add 1, each run of identical boolean operators adds 1, and labelled jumps add 1.
+ */
+public class MethodMetricsVisitor extends GenericVisitorAdapter<Void, MethodMetricsVisitor.Context> {
+
+    public static class Context {
+        private final MethodMetricsStore store;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+
+        public Context(MethodMetricsStore store) {
+            this.store = store;
+        }
+
+        private Frame frame() {
+            return frames.peek();
+        }
+
+        private void structure() {
+            Frame frame = frame();
+            if (frame != null) {
+                frame.cyclomatic++;
+                frame.cognitive += 1 + frame.nesting;
+            }
+        }
+
+        private void enter() {
+            Frame frame = frame();
+            if (frame != null) {
+                frame.nesting++;
+                frame.maxNesting = Math.max(frame.maxNesting, frame.nesting);
+            }
+        }
+
+        private void exit() {
+            Frame frame = frame();
+            if (frame != null) {
+                frame.nesting--;
+            }
+        }
+    }
+
+    private static class Frame {
+        private int cyclomatic = 1;
+        private int cognitive;
+        private int nesting;
+        private int maxNesting;
+    }
+
+    @Override
+    public Void visit(MethodDeclaration n, Context context) {
+        context.frames.push(new Frame());
+        super.visit(n, context);
+        Frame frame = context.frames.pop();
+
+        String className = n.findAncestor(TypeDeclaration.class)
+                .map(type -> ((TypeDeclaration<?>) type).getNameAsString())
+                .orElse("");
+        int line = n.getBegin().map(position -> position.line).orElse(0);
+        int loc = n.getRange().map(range -> range.getLineCount()).orElse(0);
+        context.store.add(className, n.getNameAsString(), line, frame.cyclomatic, frame.cognitive, frame.maxNesting, loc);
+        return null;
+    }
+
+    @Override
+    public Void visit(IfStmt n, Context context) {
+        Frame frame = context.frame();
+        if (frame != null) {
+            frame.cyclomatic++;
+            // An else-if continues the chain of its parent and is not nested any deeper
+            frame.cognitive += isElseIf(n) ? 1 : 1 + frame.nesting;
+        }
+
+        n.getCondition().accept(this, context);
+        context.enter();
+        n.getThenStmt().accept(this, context);
+        context.exit();
+
+        if (n.getElseStmt().isPresent()) {
+            Statement elseStmt = n.getElseStmt().get();
+            if (elseStmt.isIfStmt()) {
+                elseStmt.accept(this, context);
+            } else {
+                if (frame != null) {
+                    frame.cognitive++;
+                }
+                context.enter();
+                elseStmt.accept(this, context);
+                context.exit();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ForStmt n, Context context) {
+        return nested(context, () -> super.visit(n, context));
+    }
+
+    @Override
+    public Void visit(ForEachStmt n, Context context) {
+        return nested(context, () -> super.visit(n, context));
+    }
+
+    @Override
+    public Void visit(WhileStmt n, Context context) {
+        return nested(context, () -> super.visit(n, context));
+    }
+
+    @Override
+    public Void visit(DoStmt n, Context context) {
+        return nested(context, () -> super.visit(n, context));
+    }
+
+    @Override
+    public Void visit(CatchClause n, Context context) {
+        return nested(context, () -> super.visit(n, context));
+    }
+
+    @Override
+    public Void visit(ConditionalExpr n, Context context) {
+        return nested(context, () -> super.visit(n, context));
+    }
+
+    @Override
+    public Void visit(SwitchStmt n, Context context) {
+        return switchBlock(context, () -> super.visit(n, context));
+    }
+
+    @Override
+    public Void visit(SwitchExpr n, Context context) {
+        return switchBlock(context, () -> super.visit(n, context));
+    }
+
+    @Override
+    public Void visit(SwitchEntry n, Context context) {
+        Frame frame = context.frame();
+        if (frame != null) {
+            frame.cyclomatic += n.getLabels().size();
+        }
+        return super.visit(n, context);
+    }
+
+    @Override
+    public Void visit(BinaryExpr n, Context context) {
+        Frame frame = context.frame();
+        BinaryExpr.Operator operator = n.getOperator();
+        if (frame != null && (operator == BinaryExpr.Operator.AND || operator == BinaryExpr.Operator.OR)) {
+            frame.cyclomatic++;
+            boolean continuesSequence = n.getParentNode()
+                    .filter(parent -> parent instanceof BinaryExpr && ((BinaryExpr) parent).getOperator() == operator)
+                    .isPresent();
+            if (!continuesSequence) {
+                frame.cognitive++;
+            }
+        }
+        return super.visit(n, context);
+    }
+
+    @Override
+    public Void visit(LambdaExpr n, Context context) {
+        context.enter();
+        super.visit(n, context);
+        context.exit();
+        return null;
+    }
+
+    @Override
+    public Void visit(BreakStmt n, Context context) {
+        if (n.getLabel().isPresent() && context.frame() != null) {
+            context.frame().cognitive++;
+        }
+        return super.visit(n, context);
+    }
+
+    @Override
+    public Void visit(ContinueStmt n, Context context) {
+        if (n.getLabel().isPresent() && context.frame() != null) {
+            context.frame().cognitive++;
+        }
+        return super.visit(n, context);
+    }
+
+    private Void nested(Context context, Runnable children) {
+        context.structure();
+        context.enter();
+        children.run();
+        context.exit();
+        return null;
+    }
+
+    private Void switchBlock(Context context, Runnable children) {
+        // Cases are counted per label in visit(SwitchEntry); the switch itself only adds cognitive weight
+        Frame frame = context.frame();
+        if (frame != null) {
+            frame.cognitive += 1 + frame.nesting;
+        }
+        context.enter();
+        children.run();
+        context.exit();
+        return null;
+    }
+
+    private boolean isElseIf(IfStmt n) {
+        return n.getParentNode()
+                .filter(parent -> parent instanceof IfStmt)
+                .map(parent -> ((IfStmt) parent).getElseStmt().filter(elseStmt -> elseStmt == n).isPresent())
+                .orElse(false);
+    }
+}
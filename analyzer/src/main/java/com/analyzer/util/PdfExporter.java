@@ -3,6 +3,7 @@ package com.analyzer.util;
 import com.analyzer.model.AnalysisResult;
 import com.analyzer.model.ApiInfo;
 import com.analyzer.model.DatabaseChange;
+import com.analyzer.model.MethodHotspot;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
@@ -117,6 +118,47 @@ public class PdfExporter {
         table.addCell(String.valueOf(analysisResult.getCodeQualityMetrics().getComplexity()));
         table.addCell("Duplication");
         table.addCell(String.valueOf(analysisResult.getCodeQualityMetrics().getDuplication()));
+        table.addCell("Cognitive Complexity");
+        table.addCell(String.valueOf(analysisResult.getCodeQualityMetrics().getCognitiveComplexity()));
+        table.addCell("Max Nesting Depth");
+        table.addCell(String.valueOf(analysisResult.getCodeQualityMetrics().getMaxNestingDepth()));
+        document.add(table);
+        document.add(Chunk.NEWLINE);
+
+        PdfPTable hotspotTable = new PdfPTable(5);
+        hotspotTable.setWidthPercentage(100);
+        hotspotTable.addCell("Method");
+        hotspotTable.addCell("Cyclomatic");
+        hotspotTable.addCell("Cognitive");
+        hotspotTable.addCell("Nesting");
+        hotspotTable.addCell("Lines of Code");
+
+        for (MethodHotspot hotspot : analysisResult.getCodeQualityMetrics().getHotspots()) {
+            hotspotTable.addCell(hotspot.getClassName() + "." + hotspot.getMethodName() + " (line " + hotspot.getLine() + ")");
+            hotspotTable.addCell(String.valueOf(hotspot.getCyclomaticComplexity()));
+            hotspotTable.addCell(String.valueOf(hotspot.getCognitiveComplexity()));
+            hotspotTable.addCell(String.valueOf(hotspot.getNestingDepth()));
+            hotspotTable.addCell(String.valueOf(hotspot.getLinesOfCode()));
+        }
+
+        document.add(hotspotTable);
+        document.add(Chunk.NEWLINE);
+
+        addViolationCounts(document, "Rule", analysisResult.getCodeQualityMetrics().getViolationsByRule());
+        addViolationCounts(document, "File", analysisResult.getCodeQualityMetrics().getViolationsByFile());
+    }
+
+    private void addViolationCounts(Document document, String heading, Map<String, Integer> counts) throws DocumentException {
+        PdfPTable table = new PdfPTable(2);
+        table.setWidthPercentage(100);
+        table.addCell(heading);
+        table.addCell("Violations");
+
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            table.addCell(entry.getKey());
+            table.addCell(String.valueOf(entry.getValue()));
+        }
+
         document.add(table);
         document.add(Chunk.NEWLINE);
     }
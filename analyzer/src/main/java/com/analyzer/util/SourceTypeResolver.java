@@ -0,0 +1,138 @@
+package com.analyzer.util;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.resolution.SymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves type references to the project classes they denote, so that List&lt;Book&gt;,
+ * Book and com.example.model.Book all map to the same type. Built once per analysis;
+ * only type names are resolved (no expression typing) and every result is memoized.
+ */
+public class SourceTypeResolver {
+
+    private static final Set<String> COMMON_TYPES = Set.of(
+            "String", "Integer", "Long", "Double", "Float", "Boolean", "Byte", "Short", "Character",
+            "Object", "List", "Map", "Set", "Collection"
+    );
+
+    private final SourceTypeSolver sourceTypeSolver;
+    private final SymbolSolver symbolSolver;
+    private final Map<String, Optional<String>> resolvedTypes = new ConcurrentHashMap<>();
+    private final Map<String, String> sourceTypesBySimpleName = new HashMap<>();
+    private final Map<CompilationUnit, String> paths = new IdentityHashMap<>();
+
+    public SourceTypeResolver(Map<String, CompilationUnit> compilationUnits) {
+        this.sourceTypeSolver = new SourceTypeSolver(compilationUnits.values());
+        compilationUnits.forEach((path, cu) -> paths.put(cu, path));
+        CombinedTypeSolver typeSolver = new CombinedTypeSolver(
+                CombinedTypeSolver.ExceptionHandlers.IGNORE_ALL,
+                Arrays.asList(new ReflectionTypeSolver(), sourceTypeSolver));
+        this.symbolSolver = new SymbolSolver(typeSolver);
+        for (String qualifiedName : sourceTypeSolver.getSourceTypes()) {
+            sourceTypesBySimpleName.putIfAbsent(simpleName(qualifiedName), qualifiedName);
+        }
+    }
+
+    /**
+     * Adds the qualified names of all project types referenced by the given type, including
+     * type arguments, array components and wildcard bounds.
+     */
+    public void collectSourceTypes(Type type, Set<String> relations) {
+        if (type.isArrayType()) {
+            collectSourceTypes(type.asArrayType().getComponentType(), relations);
+        } else if (type.isWildcardType()) {
+            type.asWildcardType().getExtendedType().ifPresent(bound -> collectSourceTypes(bound, relations));
+            type.asWildcardType().getSuperType().ifPresent(bound -> collectSourceTypes(bound, relations));
+        } else if (type.isClassOrInterfaceType()) {
+            ClassOrInterfaceType classType = type.asClassOrInterfaceType();
+            resolve(classType).ifPresent(relations::add);
+            classType.getTypeArguments().ifPresent(arguments ->
+                    arguments.forEach(argument -> collectSourceTypes(argument, relations)));
+        }
+    }
+
+    /**
+     * Returns the qualified name of the project type the given type erases to, if any.
+     */
+    public Optional<String> resolve(Type type) {
+        return type.isClassOrInterfaceType() ? resolve(type.asClassOrInterfaceType()) : Optional.empty();
+    }
+
+    /**
+     * Returns the qualified name of the project type a (possibly qualified) type name denotes
+     * when used at the given node.
+     */
+    public Optional<String> resolve(String name, Node context) {
+        String key = contextKey(context) + "#" + name;
+        return resolvedTypes.computeIfAbsent(key, k -> solve(name, context));
+    }
+
+    public Optional<TypeDeclaration<?>> getDeclaration(String qualifiedName) {
+        return sourceTypeSolver.getDeclaration(qualifiedName);
+    }
+
+    public static boolean isCommonType(String type) {
+        return COMMON_TYPES.contains(type) || type.startsWith("java.") || type.startsWith("javax.");
+    }
+
+    public static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    private Optional<String> resolve(ClassOrInterfaceType type) {
+        return resolve(type.getNameWithScope(), type);
+    }
+
+    private Optional<String> solve(String name, Node context) {
+        try {
+            SymbolReference<? extends ResolvedTypeDeclaration> reference = symbolSolver.solveType(name, context);
+            if (reference.isSolved() && reference.getCorrespondingDeclaration() instanceof ResolvedReferenceTypeDeclaration) {
+                ResolvedReferenceTypeDeclaration declaration =
+                        (ResolvedReferenceTypeDeclaration) reference.getCorrespondingDeclaration();
+                String qualifiedName = declaration.getQualifiedName();
+                return sourceTypeSolver.isSourceType(qualifiedName) ? Optional.of(qualifiedName) : Optional.empty();
+            }
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            // Fall back to the simple name when the context cannot be resolved
+            return isCommonType(name) ? Optional.empty() : Optional.ofNullable(sourceTypesBySimpleName.get(simpleName(name)));
+        }
+    }
+
+    /**
+     * Type names resolve identically anywhere inside the same type declaration, so the nearest enclosing
+     * declaration is the memoization scope: a class, interface, enum, record or annotation, including local
+     * ones, or an anonymous class body. It is identified by its file and position, since local and
+     * anonymous classes have no qualified name.
+     */
+    private String contextKey(Node node) {
+        Optional<Node> current = Optional.of(node);
+        while (current.isPresent()) {
+            Node candidate = current.get();
+            if (candidate instanceof TypeDeclaration
+                    || (candidate instanceof ObjectCreationExpr && ((ObjectCreationExpr) candidate).getAnonymousClassBody().isPresent())) {
+                String position = candidate.getBegin().map(begin -> begin.line + ":" + begin.column).orElse("");
+                return path(candidate) + "@" + position;
+            }
+            current = candidate.getParentNode();
+        }
+        return path(node);
+    }
+
+    private String path(Node node) {
+        return node.findCompilationUnit().map(paths::get).orElse("");
+    }
+}
@@ -0,0 +1,77 @@
+package com.analyzer.util;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFactory;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Type solver over already-parsed, in-memory compilation units. Unlike JavaParserTypeSolver it
+ * needs no source directory on disk, and it is safe to share between worker threads.
+ */
+public class SourceTypeSolver implements TypeSolver {
+
+    private final Map<String, TypeDeclaration<?>> declarations = new ConcurrentHashMap<>();
+    private final Map<String, SymbolReference<ResolvedReferenceTypeDeclaration>> solved = new ConcurrentHashMap<>();
+    private TypeSolver parent;
+
+    public SourceTypeSolver(Collection<CompilationUnit> compilationUnits) {
+        for (CompilationUnit cu : compilationUnits) {
+            for (TypeDeclaration<?> declaration : cu.findAll(TypeDeclaration.class)) {
+                declaration.getFullyQualifiedName().ifPresent(name -> declarations.putIfAbsent(name, declaration));
+            }
+        }
+    }
+
+    public boolean isSourceType(String qualifiedName) {
+        return declarations.containsKey(qualifiedName);
+    }
+
+    public Optional<TypeDeclaration<?>> getDeclaration(String qualifiedName) {
+        return Optional.ofNullable(declarations.get(qualifiedName));
+    }
+
+    public Set<String> getSourceTypes() {
+        return declarations.keySet();
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        if (this.parent != null) {
+            throw new IllegalStateException("This TypeSolver already has a parent.");
+        }
+        if (parent == this) {
+            throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+        }
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        SymbolReference<ResolvedReferenceTypeDeclaration> reference = solved.get(name);
+        if (reference != null) {
+            return reference;
+        }
+
+        // Not computeIfAbsent: building a declaration may re-enter the solver
+        TypeDeclaration<?> declaration = declarations.get(name);
+        reference = declaration == null
+                ? SymbolReference.unsolved(ResolvedReferenceTypeDeclaration.class)
+                : SymbolReference.solved(JavaParserFactory.toTypeDeclaration(declaration, getRoot()));
+        SymbolReference<ResolvedReferenceTypeDeclaration> existing = solved.putIfAbsent(name, reference);
+        return existing != null ? existing : reference;
+    }
+}
@@ -1,12 +1,42 @@
 package com.example.authorservice;
 
+import com.example.common.config.StartupTimings;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
-@SpringBootApplication
+// The shared request, data source and write support lives outside this package
+@SpringBootApplication(scanBasePackages = {"com.example.authorservice", "com.example.common"})
+@ConfigurationPropertiesScan({"com.example.authorservice", "com.example.common"})
+@EnableScheduling
 public class AuthorServiceApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(AuthorServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(AuthorServiceApplication.class);
+        StartupTimings.install(application);
+        application.run(args);
     }
-}
\ No newline at end of file
+
+    // Every JSON endpoint also answers in CBOR when asked for application/cbor, with the same Jackson settings
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // List pages have no single version, so their weak ETag is a hash of the body; a match still saves the transfer
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listEtagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/authors");
+        return registration;
+    }
+}
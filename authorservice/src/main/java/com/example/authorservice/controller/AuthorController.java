@@ -1,32 +1,125 @@
 package com.example.authorservice.controller;
 
+import com.example.authorservice.dto.AuthorSummary;
 import com.example.authorservice.model.Author;
 import com.example.authorservice.service.AuthorService;
+import com.example.common.dto.BulkResult;
+import com.example.common.dto.ResourceVersion;
+import com.example.common.service.WriteOutcome;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/authors")
 public class AuthorController {
     private final AuthorService authorService;
+    private final CacheControl listCacheControl;
 
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, @Value("${api.list-max-age:10s}") Duration listMaxAge) {
         this.authorService = authorService;
+        this.listCacheControl = CacheControl.maxAge(listMaxAge).cachePublic();
     }
 
     @GetMapping
-    public List<Author> getAllAuthors() {
-        // This API is called to retrieve all authors
-        return authorService.getAllAuthors();
+    public ResponseEntity<List<Author>> getAuthors(@RequestParam(defaultValue = "0") long afterId,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        // This API is called to retrieve authors one keyset page at a time
+        return keysetPage(authorService.getAuthors(afterId, size), Author::getId, size);
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<AuthorSummary>> getAuthorSummaries(@RequestParam(defaultValue = "0") long afterId,
+                                                                  @RequestParam(defaultValue = "20") int size) {
+        // This API is called to list authors with only their id and name, one keyset page at a time
+        return keysetPage(authorService.getAuthorSummaries(afterId, size), AuthorSummary::getId, size);
+    }
+
+    @PostMapping("/summary/batch")
+    public ResponseEntity<List<AuthorSummary>> getAuthorSummariesByIds(@RequestBody List<Long> ids) {
+        // This API is called to resolve the names of several authors in one round trip, e.g. for a page of books
+        // At most one page of ids per call; callers split longer lists
+        if (ids.size() > AuthorService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(authorService.getAuthorSummariesByIds(new LinkedHashSet<>(ids)));
+    }
+
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<AuthorSummary> getAuthorSummary(@PathVariable Long id) {
+        // This API is called to resolve the name of a single author
+        AuthorSummary summary = authorService.getAuthorSummary(id);
+        return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAuthors() {
+        // This API is called to export all authors as newline-delimited JSON with constant memory
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(authorService::exportAuthors);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Author> getAuthorById(@PathVariable Long id) {
+    public ResponseEntity<Author> getAuthorById(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
         // This API is called to retrieve a specific author by their ID
+        // A revalidation is answered from the cached version projection, without loading or serializing the author
+        if (!headers.getIfNoneMatch().isEmpty() || headers.getIfModifiedSince() >= 0) {
+            ResourceVersion version = authorService.getAuthorVersion(id);
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (notModified(headers, version)) {
+                return validators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version.getVersion(), version.getUpdatedAt())
+                        .build();
+            }
+        }
         Author author = authorService.getAuthorById(id);
-        return author != null ? ResponseEntity.ok(author) : ResponseEntity.notFound().build();
+        return author != null
+                ? validators(ResponseEntity.ok(), author.getVersion(), author.getUpdatedAt()).body(author)
+                : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<Author>> getAuthorsByIds(@RequestBody List<Long> ids) {
+        // This API is called to retrieve several authors in one round trip, e.g. for a page of books
+        // At most one page of ids per call; callers split longer lists
+        if (ids.size() > AuthorService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(authorService.getAuthorsByIds(new LinkedHashSet<>(ids)));
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkResult createAuthors(InputStream body) throws IOException {
+        // This API is called to create many authors from a JSON array or an NDJSON stream
+        return authorService.createAuthors(body);
+    }
+
+    @PutMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkResult updateAuthors(InputStream body) throws IOException {
+        // This API is called to update many authors, matched by id, from a JSON array or an NDJSON stream
+        return authorService.updateAuthors(body);
+    }
+
+    @DeleteMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkResult deleteAuthors(InputStream body) throws IOException {
+        // This API is called to delete many authors given their ids as a JSON array or an NDJSON stream
+        return authorService.deleteAuthors(body);
     }
 
     @PostMapping
@@ -36,16 +129,91 @@ public class AuthorController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Author> updateAuthor(@PathVariable Long id, @RequestBody Author authorDetails) {
+    public ResponseEntity<Author> updateAuthor(@PathVariable Long id, @RequestBody Author authorDetails,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // This API is called to update an existing author
-        Author updatedAuthor = authorService.updateAuthor(id, authorDetails);
-        return updatedAuthor != null ? ResponseEntity.ok(updatedAuthor) : ResponseEntity.notFound().build();
+        // With If-Match the update only applies to the version the client has seen. The response carries the
+        // author as written with its new entity tag, so a client can chain the next conditional update.
+        WriteOutcome outcome = authorService.updateAuthor(id, authorDetails, expectedVersion(ifMatch));
+        if (outcome != WriteOutcome.APPLIED) {
+            return toResponse(outcome).build();
+        }
+        Author author = authorService.getWrittenAuthor(id);
+        // Deleted again in between
+        return author != null
+                ? validators(ResponseEntity.ok(), author.getVersion(), author.getUpdatedAt()).body(author)
+                : ResponseEntity.notFound().build();
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAuthor(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteAuthor(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // This API is called to delete an author
-        authorService.deleteAuthor(id);
-        return ResponseEntity.ok().build();
+        return toResponse(authorService.deleteAuthor(id, expectedVersion(ifMatch))).build();
+    }
+
+    private static ResponseEntity.HeadersBuilder<?> toResponse(WriteOutcome outcome) {
+        switch (outcome) {
+            case APPLIED:
+                return ResponseEntity.ok();
+            case VERSION_CONFLICT:
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+            default:
+                return ResponseEntity.notFound();
+        }
+    }
+
+    // The Link header points to the next page while the current page is full
+    private <T> ResponseEntity<List<T>> keysetPage(List<T> items, Function<T, Long> id, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(listCacheControl);
+        if (!items.isEmpty() && items.size() == AuthorService.pageSize(size)) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("afterId", id.apply(items.get(items.size() - 1)))
+                    .replaceQueryParam("size", items.size())
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(items);
+    }
+
+    // Weak, because Tomcat does not compress responses that carry a strong entity tag
+    private static String etag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    // Clients and caches must revalidate before reusing a stored copy, which costs them a 304 at most
+    private static ResponseEntity.BodyBuilder validators(ResponseEntity.BodyBuilder response, long version, Instant updatedAt) {
+        response.eTag(etag(version)).cacheControl(CacheControl.noCache());
+        if (updatedAt != null) {
+            response.lastModified(updatedAt);
+        }
+        return response;
+    }
+
+    // If-None-Match takes precedence over If-Modified-Since; Last-Modified only has second precision
+    private static boolean notModified(HttpHeaders headers, ResourceVersion version) {
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream().anyMatch(tag -> {
+                Long matched = expectedVersion(tag);
+                return matched == null || matched == version.getVersion();
+            });
+        }
+        return version.getUpdatedAt() != null
+                && version.getUpdatedAt().getEpochSecond() <= headers.getIfModifiedSince() / 1000;
+    }
+
+    // Parses an If-Match header such as "3" or W/"3"; "*" or no header means unconditional
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim().replaceFirst("^W/", "").replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            // An entity tag we never issued cannot match any version
+            return -1L;
+        }
     }
 }
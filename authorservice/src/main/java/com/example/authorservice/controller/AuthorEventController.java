@@ -0,0 +1,40 @@
+package com.example.authorservice.controller;
+
+import com.example.authorservice.model.AuthorEvent;
+import com.example.authorservice.service.AuthorOutbox;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/authors/events")
+public class AuthorEventController {
+    private final AuthorOutbox authorOutbox;
+
+    public AuthorEventController(AuthorOutbox authorOutbox) {
+        this.authorOutbox = authorOutbox;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<AuthorEvent>> getEvents(@RequestParam(defaultValue = "0") long afterPosition,
+                                                       @RequestParam(defaultValue = "500") int limit) {
+        // This API is called by other services to follow author changes in order, starting after the last event they applied
+        // 410 when events after afterPosition have been purged; the caller has to take a new snapshot
+        List<AuthorEvent> events = authorOutbox.getEvents(afterPosition, limit);
+        return events != null ? ResponseEntity.ok(events) : ResponseEntity.status(HttpStatus.GONE).build();
+    }
+
+    @GetMapping("/head")
+    public long getHeadPosition() {
+        // This API is called before taking a snapshot of the authors, to know where to start following events
+        return authorOutbox.getHeadPosition();
+    }
+
+    @GetMapping("/purged-through")
+    public long getPurgedThrough() {
+        // This API is called to find the oldest retained event: the one after this position
+        return authorOutbox.getPurgedThrough();
+    }
+}
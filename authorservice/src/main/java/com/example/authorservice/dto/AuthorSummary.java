@@ -0,0 +1,23 @@
+package com.example.authorservice.dto;
+
+/**
+ * The listing view of an author, without the biography.
+ * Selected by a constructor projection, so it is never managed by the persistence context.
+ */
+public class AuthorSummary {
+    private final Long id;
+    private final String name;
+
+    public AuthorSummary(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -1,15 +1,32 @@
 package com.example.authorservice.model;
 
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import javax.persistence.*;
+import java.time.Instant;
 
+// Kept in the second-level cache; READ_WRITE soft-locks an entry while a write commits
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "authors")
 @Table(name = "authors")
 public class Author {
+    // A pooled sequence (a table on MySQL) hands out ids in blocks, which lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
     private Long id;
     private String name;
+    // Only read when the biography itself is accessed; listings and lookups by name never load it
+    @Basic(fetch = FetchType.LAZY)
     private String biography;
+    // Incremented on every write; exposed as the ETag for conditional requests
+    @Version
+    private long version;
+    // Set on every write; exposed as Last-Modified
+    @UpdateTimestamp
+    private Instant updatedAt;
 
     // Getters and setters
 
@@ -36,4 +53,20 @@ public class Author {
     public void setBiography(String biography) {
         this.biography = biography;
     }
-}
\ No newline at end of file
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.authorservice.model;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// Outbox row, written in the same transaction as the author change it describes
+@Entity
+@Table(name = "author_events", indexes = {
+        @Index(name = "idx_author_events_occurred_at", columnList = "occurredAt"),
+        @Index(name = "idx_author_events_position", columnList = "position", unique = true)})
+public class AuthorEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_event_seq")
+    @SequenceGenerator(name = "author_event_seq", sequenceName = "author_event_seq", allocationSize = 50)
+    private Long id;
+    // Place in the event feed, assigned once the event is committed; null until then
+    private Long position;
+    private Long authorId;
+    @Enumerated(EnumType.STRING)
+    private AuthorEventType type;
+    // The author's name after the change; null for deletions
+    private String name;
+    private Instant occurredAt;
+
+    // Getters and setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+
+    public AuthorEventType getType() {
+        return type;
+    }
+
+    public void setType(AuthorEventType type) {
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
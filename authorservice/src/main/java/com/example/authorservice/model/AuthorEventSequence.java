@@ -0,0 +1,43 @@
+package com.example.authorservice.model;
+
+import javax.persistence.*;
+
+// The last position handed out in the author event feed and the last one purged; a single row, locked while
+// positions are assigned or events purged
+@Entity
+@Table(name = "author_event_sequence")
+public class AuthorEventSequence {
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+    private long lastPosition;
+    // Events up to this position have been deleted; a consumer whose cursor is below it missed some
+    private long purgedThrough;
+
+    // Getters and setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getLastPosition() {
+        return lastPosition;
+    }
+
+    public void setLastPosition(long lastPosition) {
+        this.lastPosition = lastPosition;
+    }
+
+    public long getPurgedThrough() {
+        return purgedThrough;
+    }
+
+    public void setPurgedThrough(long purgedThrough) {
+        this.purgedThrough = purgedThrough;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.authorservice.model;
+
+public enum AuthorEventType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
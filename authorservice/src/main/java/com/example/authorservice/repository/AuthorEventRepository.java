@@ -0,0 +1,30 @@
+package com.example.authorservice.repository;
+
+import com.example.authorservice.model.AuthorEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AuthorEventRepository extends JpaRepository<AuthorEvent, Long> {
+
+    List<AuthorEvent> findByPositionGreaterThanOrderByPositionAsc(Long afterPosition, Pageable pageable);
+
+    List<AuthorEvent> findByPositionIsNullOrderByIdAsc(Pageable pageable);
+
+    @Query("select coalesce(max(e.position), 0) from AuthorEvent e")
+    long findLastPosition();
+
+    // Null while no sequenced event is that old
+    @Query("select max(e.position) from AuthorEvent e where e.position is not null and e.occurredAt < :before")
+    Long findLastPositionOccurredBefore(Instant before);
+
+    @Transactional
+    @Modifying
+    @Query("delete from AuthorEvent e where e.position <= :through")
+    int deletePositionsThrough(long through);
+}
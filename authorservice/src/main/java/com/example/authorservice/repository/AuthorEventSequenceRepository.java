@@ -0,0 +1,16 @@
+package com.example.authorservice.repository;
+
+import com.example.authorservice.model.AuthorEventSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface AuthorEventSequenceRepository extends JpaRepository<AuthorEventSequence, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AuthorEventSequence s where s.id = :id")
+    Optional<AuthorEventSequence> findForUpdate(Long id);
+}
@@ -1,7 +1,79 @@
 package com.example.authorservice.repository;
 
+import com.example.authorservice.dto.AuthorSummary;
 import com.example.authorservice.model.Author;
+import com.example.common.dto.ResourceVersion;
+import com.example.common.service.RowCacheInvalidator;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+// Declared queries run in read-only transactions, which are routed to a replica
+@Transactional(readOnly = true)
 public interface AuthorRepository extends JpaRepository<Author, Long> {
-}
\ No newline at end of file
+    int STREAM_FETCH_SIZE = 500;
+
+    // Keyset pagination: seeks past the last id of the previous page instead of counting an offset.
+    // Every author of the page is serialized whole, so the lazy biography is selected in the same statement.
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("select a from Author a fetch all properties where a.id > :afterId order by a.id")
+    List<Author> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // The query cache keeps the ids and names of each page until the next write to the table
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new com.example.authorservice.dto.AuthorSummary(a.id, a.name) from Author a " +
+            "where a.id > :afterId order by a.id")
+    List<AuthorSummary> findSummaries(Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("select a from Author a fetch all properties where a.id in :ids")
+    List<Author> findAllWithBiography(Collection<Long> ids);
+
+    // Single-statement writes: no entity is loaded first. The version guard is skipped when null.
+    // Native and in their own query space, so that Hibernate does not clear the whole authors cache region;
+    // callers evict the written row through RowCacheInvalidator.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = RowCacheInvalidator.QUERY_SPACE))
+    @Query(value = "update authors set name = :name, biography = :biography, version = version + 1, " +
+            "updated_at = :updatedAt " +
+            "where id = :id and (:version is null or version = :version)", nativeQuery = true)
+    int updateById(Long id, Long version, Instant updatedAt, String name, String biography);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = RowCacheInvalidator.QUERY_SPACE))
+    @Query(value = "delete from authors where id = :id and (:version is null or version = :version)", nativeQuery = true)
+    int deleteById(Long id, Long version);
+
+    // Answers conditional GETs without loading the row; cached until the next write to the table
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new com.example.common.dto.ResourceVersion(a.version, a.updatedAt) from Author a where a.id = :id")
+    Optional<ResourceVersion> findVersionById(Long id);
+
+    @Query("select a.id from Author a where a.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    // Must be consumed inside a transaction and closed afterwards
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select a from Author a fetch all properties order by a.id")
+    Stream<Author> streamAll();
+}
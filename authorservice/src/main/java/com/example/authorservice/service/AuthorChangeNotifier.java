@@ -0,0 +1,80 @@
+package com.example.authorservice.service;
+
+import com.example.common.config.LogThrottle;
+import com.example.common.config.RequestStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tells interested services that an author changed so they can evict their cached copy.
+ * Each configured URL may contain an {id} placeholder and receives a fire-and-forget DELETE.
+ */
+@Component
+public class AuthorChangeNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(AuthorChangeNotifier.class);
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private final List<String> listenerUrls;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    // An unreachable listener fails every write's notification
+    private final LogThrottle notifyErrors = new LogThrottle(Duration.ofSeconds(10));
+
+    public AuthorChangeNotifier(@Value("${author-service.change-listeners:}") List<String> listenerUrls) {
+        this.listenerUrls = listenerUrls;
+    }
+
+    /**
+     * Notifies the listeners, after the commit when called inside a transaction so that they do not
+     * reload the old version.
+     */
+    public void authorChanged(Long authorId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyListeners(authorId);
+                }
+            });
+        } else {
+            notifyListeners(authorId);
+        }
+    }
+
+    // Counted in the request's stats when sent; the request does not wait for the answer
+    private void notifyListeners(Long authorId) {
+        RequestStats stats = RequestStats.current();
+        for (String url : listenerUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            if (stats != null) {
+                stats.remoteCall("DELETE " + url.trim(), 0);
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url.trim().replace("{id}", String.valueOf(authorId))))
+                    .timeout(TIMEOUT)
+                    .DELETE()
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .exceptionally(e -> {
+                        long suppressed = notifyErrors.acquire();
+                        if (suppressed >= 0) {
+                            logger.warn("Error notifying {} about author {}: {} ({} more since the last report)",
+                                    url, authorId, e.toString(), suppressed);
+                        }
+                        logger.debug("Error notifying " + url + " about author " + authorId, e);
+                        return null;
+                    });
+        }
+    }
+}
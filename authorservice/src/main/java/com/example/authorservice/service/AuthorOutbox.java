@@ -0,0 +1,147 @@
+package com.example.authorservice.service;
+
+import com.example.authorservice.model.Author;
+import com.example.authorservice.model.AuthorEvent;
+import com.example.authorservice.model.AuthorEventSequence;
+import com.example.authorservice.model.AuthorEventType;
+import com.example.authorservice.repository.AuthorEventRepository;
+import com.example.authorservice.repository.AuthorEventSequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Transactional outbox of author changes. Events are written by the transaction that changes the
+ * author, so they exist exactly when the change was committed, and are read by other services in
+ * feed position order through the event feed.
+ * <p>
+ * Ids come from a pooled sequence and are handed out before commit, so their order is not the order
+ * in which events become visible. Positions are therefore assigned afterwards by {@link #sequence()},
+ * which numbers the committed events that have none yet while holding the lock on the
+ * author_event_sequence row. Runs on different instances take turns, so a consumer that has read up to
+ * a position never misses an event that is given a lower one later.
+ * <p>
+ * Old events are purged by position, up to the last one older than the retention, and the sequence row
+ * records how far. A consumer whose cursor is below that has missed events and is told to take a new snapshot.
+ */
+@Component
+public class AuthorOutbox {
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final AuthorEventRepository authorEventRepository;
+    private final AuthorEventSequenceRepository sequenceRepository;
+    private final EntityManager entityManager;
+    private final Duration retention;
+
+    public AuthorOutbox(AuthorEventRepository authorEventRepository, AuthorEventSequenceRepository sequenceRepository,
+                        EntityManager entityManager, @Value("${author-events.retention:7d}") Duration retention) {
+        this.authorEventRepository = authorEventRepository;
+        this.sequenceRepository = sequenceRepository;
+        this.entityManager = entityManager;
+        this.retention = retention;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Author author) {
+        record(author.getId(), AuthorEventType.CREATED, author.getName());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updated(Long authorId, String name) {
+        record(authorId, AuthorEventType.UPDATED, name);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Long authorId) {
+        record(authorId, AuthorEventType.DELETED, null);
+    }
+
+    private void record(Long authorId, AuthorEventType type, String name) {
+        AuthorEvent event = new AuthorEvent();
+        event.setAuthorId(authorId);
+        event.setType(type);
+        event.setName(name);
+        event.setOccurredAt(Instant.now());
+        authorEventRepository.save(event);
+    }
+
+    /**
+     * Gives the committed events without a position the next positions, in id order. The sequence row is
+     * locked before the events are read, so the read sees every event committed before this run started.
+     */
+    @Scheduled(fixedDelayString = "${author-events.sequence-interval:PT0.2S}")
+    @Transactional
+    public void sequence() {
+        AuthorEventSequence sequence = sequenceRepository.findForUpdate(AuthorEventSequence.ID).orElseGet(() -> {
+            // First run; of several instances creating the row at once, all but one fail and retry next time
+            AuthorEventSequence created = new AuthorEventSequence();
+            created.setId(AuthorEventSequence.ID);
+            created.setLastPosition(authorEventRepository.findLastPosition());
+            entityManager.persist(created);
+            entityManager.flush();
+            return created;
+        });
+        long position = sequence.getLastPosition();
+        for (AuthorEvent event : authorEventRepository.findByPositionIsNullOrderByIdAsc(PageRequest.of(0, MAX_BATCH_SIZE))) {
+            event.setPosition(++position);
+        }
+        sequence.setLastPosition(position);
+    }
+
+    /**
+     * Returns up to {@code limit} events with a position greater than {@code afterPosition}, in position order,
+     * or null when some of them have been purged. Reads from the primary, since a lagging replica could hide an
+     * event below the consumer's cursor.
+     */
+    @Transactional
+    public List<AuthorEvent> getEvents(long afterPosition, int limit) {
+        List<AuthorEvent> events = authorEventRepository.findByPositionGreaterThanOrderByPositionAsc(afterPosition,
+                PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_BATCH_SIZE)));
+        // Checked after reading the events, so that a purge committed in between is seen here
+        return afterPosition < getPurgedThrough() ? null : events;
+    }
+
+    /**
+     * Returns the position up to which events have been purged, or 0. The oldest event retained follows it.
+     */
+    @Transactional
+    public long getPurgedThrough() {
+        return sequenceRepository.findById(AuthorEventSequence.ID).map(AuthorEventSequence::getPurgedThrough).orElse(0L);
+    }
+
+    /**
+     * Returns the position of the last event in the feed, or 0. A consumer that takes a snapshot of the
+     * authors afterwards can follow the feed from this position.
+     */
+    @Transactional
+    public long getHeadPosition() {
+        return authorEventRepository.findLastPosition();
+    }
+
+    // Consumers that were offline for longer than the retention need to take a new snapshot.
+    // The first purge waits, so that it does not compete with startup or run at every scale-out.
+    @Scheduled(fixedDelayString = "${author-events.purge-interval:PT1H}",
+            initialDelayString = "${author-events.purge-initial-delay:PT10M}")
+    @Transactional
+    public void purge() {
+        AuthorEventSequence sequence = sequenceRepository.findForUpdate(AuthorEventSequence.ID).orElse(null);
+        if (sequence == null) {
+            return;
+        }
+        // Events without a position yet are kept until they have one, however old
+        Long through = authorEventRepository.findLastPositionOccurredBefore(Instant.now().minus(retention));
+        if (through == null || through <= sequence.getPurgedThrough()) {
+            return;
+        }
+        authorEventRepository.deletePositionsThrough(through);
+        sequence.setPurgedThrough(through);
+    }
+}
@@ -1,42 +1,284 @@
 package com.example.authorservice.service;
 
+import com.example.authorservice.dto.AuthorSummary;
 import com.example.authorservice.model.Author;
 import com.example.authorservice.repository.AuthorRepository;
+import com.example.common.dto.BulkItemError;
+import com.example.common.dto.BulkResult;
+import com.example.common.dto.ResourceVersion;
+import com.example.common.service.BulkExecutor;
+import com.example.common.service.RowCacheInvalidator;
+import com.example.common.service.WriteOutcome;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.hibernate.Session;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AuthorService {
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final AuthorRepository authorRepository;
+    private final AuthorChangeNotifier authorChangeNotifier;
+    private final AuthorOutbox authorOutbox;
+    private final EntityManager entityManager;
+    private final BulkExecutor bulkExecutor;
+    private final RowCacheInvalidator rowCacheInvalidator;
+    private final ObjectWriter exportWriter;
+    private final ObjectReader authorReader;
+    private final ObjectReader idReader;
 
-    public AuthorService(AuthorRepository authorRepository) {
+    public AuthorService(AuthorRepository authorRepository, AuthorChangeNotifier authorChangeNotifier,
+                         AuthorOutbox authorOutbox, EntityManager entityManager, BulkExecutor bulkExecutor,
+                         RowCacheInvalidator rowCacheInvalidator, ObjectMapper objectMapper) {
         this.authorRepository = authorRepository;
+        this.authorChangeNotifier = authorChangeNotifier;
+        this.authorOutbox = authorOutbox;
+        this.entityManager = entityManager;
+        this.bulkExecutor = bulkExecutor;
+        this.rowCacheInvalidator = rowCacheInvalidator;
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.authorReader = objectMapper.readerFor(Author.class);
+        this.idReader = objectMapper.readerFor(Long.class);
     }
 
-    public List<Author> getAllAuthors() {
-        return authorRepository.findAll();
+    /**
+     * Returns up to {@code size} authors with an id greater than {@code afterId}, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<Author> getAuthors(long afterId, int size) {
+        return authorRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize(size)));
     }
 
+    /**
+     * Writes every author as one JSON line. Rows are streamed from the database with a fetch size and
+     * detached once written, so memory use does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void exportAuthors(OutputStream out) throws IOException {
+        try (Stream<Author> authors = authorRepository.streamAll();
+             JsonGenerator generator = exportWriter.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            Iterator<Author> iterator = authors.iterator();
+            while (iterator.hasNext()) {
+                Author author = iterator.next();
+                exportWriter.writeValue(generator, author);
+                generator.writeRaw('\n');
+                entityManager.detach(author);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Author getAuthorById(Long id) {
         return authorRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Reads an author right after writing it. Read-write, so it comes from the primary and not from a replica
+     * that may not have the write yet.
+     */
+    @Transactional
+    public Author getWrittenAuthor(Long id) {
+        return authorRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Returns the version and last modification time of a author, or null when it does not exist.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getAuthorVersion(Long id) {
+        return authorRepository.findVersionById(id).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Author> getAuthorsByIds(Collection<Long> ids) {
+        return authorRepository.findAllWithBiography(ids);
+    }
+
+    /**
+     * Returns up to {@code size} author summaries with an id greater than {@code afterId}, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<AuthorSummary> getAuthorSummaries(long afterId, int size) {
+        return authorRepository.findSummaries(afterId, PageRequest.of(0, pageSize(size)));
+    }
+
+    @Transactional(readOnly = true)
+    public AuthorSummary getAuthorSummary(Long id) {
+        return authorRepository.findById(id).map(AuthorService::summary).orElse(null);
+    }
+
+    // Unlike findAllById, a multi-load answers from the second-level cache and only selects the misses.
+    // The biography is never touched, so it is not loaded.
+    @Transactional(readOnly = true)
+    public List<AuthorSummary> getAuthorSummariesByIds(Collection<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Author.class)
+                .multiLoad(new ArrayList<>(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .map(AuthorService::summary)
+                .collect(Collectors.toList());
+    }
+
+    private static AuthorSummary summary(Author author) {
+        return new AuthorSummary(author.getId(), author.getName());
+    }
+
+    @Transactional
     public Author createAuthor(Author author) {
-        return authorRepository.save(author);
+        Author created = authorRepository.save(author);
+        authorOutbox.created(created);
+        return created;
+    }
+
+    /**
+     * Updates an author with a single UPDATE statement. When {@code expectedVersion} is given, the
+     * update only applies if the stored version still matches it.
+     */
+    @Transactional
+    public WriteOutcome updateAuthor(Long id, Author authorDetails, Long expectedVersion) {
+        int updated = authorRepository.updateById(id, expectedVersion, Instant.now(), authorDetails.getName(), authorDetails.getBiography());
+        if (updated > 0) {
+            rowCacheInvalidator.rowWritten(Author.class, id);
+            authorOutbox.updated(id, authorDetails.getName());
+        }
+        return changed(outcome(updated, id), id);
+    }
+
+    /**
+     * Deletes an author with a single DELETE statement, optionally guarded by {@code expectedVersion}.
+     */
+    @Transactional
+    public WriteOutcome deleteAuthor(Long id, Long expectedVersion) {
+        int deleted = authorRepository.deleteById(id, expectedVersion);
+        if (deleted > 0) {
+            rowCacheInvalidator.rowWritten(Author.class, id);
+            authorOutbox.deleted(id);
+        }
+        return changed(outcome(deleted, id), id);
+    }
+
+    // Only a write that matched no row costs a second query, to tell a missing author from a stale version
+    private WriteOutcome outcome(int rows, Long id) {
+        if (rows > 0) {
+            return WriteOutcome.APPLIED;
+        }
+        return authorRepository.existsById(id) ? WriteOutcome.VERSION_CONFLICT : WriteOutcome.NOT_FOUND;
     }
 
-    public Author updateAuthor(Long id, Author authorDetails) {
-        Author author = authorRepository.findById(id).orElse(null);
-        if (author != null) {
-            author.setName(authorDetails.getName());
-            author.setBiography(authorDetails.getBiography());
-            return authorRepository.save(author);
+    private WriteOutcome changed(WriteOutcome outcome, Long id) {
+        if (outcome == WriteOutcome.APPLIED) {
+            authorChangeNotifier.authorChanged(id);
         }
-        return null;
+        return outcome;
+    }
+
+    /**
+     * Creates the authors of a JSON array or NDJSON stream. Client supplied ids are ignored.
+     */
+    public BulkResult createAuthors(InputStream body) throws IOException {
+        return bulkExecutor.<Author>execute(authorReader.readValues(body), (chunk, firstIndex) -> {
+            chunk.forEach(author -> author.setId(null));
+            authorRepository.saveAll(chunk).forEach(authorOutbox::created);
+            return List.of();
+        });
+    }
+
+    /**
+     * Updates the authors of a JSON array or NDJSON stream, matched by id. Unknown ids are reported.
+     */
+    public BulkResult updateAuthors(InputStream body) throws IOException {
+        Set<Long> changed = new LinkedHashSet<>();
+        BulkResult result = bulkExecutor.<Author>execute(authorReader.readValues(body), (chunk, firstIndex) -> {
+            Map<Long, Author> existing = authorRepository.findAllById(chunk.stream()
+                            .map(Author::getId)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(Author::getId, Function.identity()));
+            List<BulkItemError> errors = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Author details = chunk.get(i);
+                Author author = details.getId() != null ? existing.get(details.getId()) : null;
+                if (author == null) {
+                    errors.add(new BulkItemError(firstIndex + i, details.getId(), "Author not found"));
+                    continue;
+                }
+                author.setName(details.getName());
+                author.setBiography(details.getBiography());
+                authorOutbox.updated(author.getId(), author.getName());
+            }
+            addAfterCommit(changed, existing.keySet());
+            return errors;
+        });
+        changed.forEach(authorChangeNotifier::authorChanged);
+        return result;
+    }
+
+    /**
+     * Deletes the authors whose ids are given as a JSON array or NDJSON stream. Unknown ids are reported.
+     */
+    public BulkResult deleteAuthors(InputStream body) throws IOException {
+        Set<Long> changed = new LinkedHashSet<>();
+        BulkResult result = bulkExecutor.<Long>execute(idReader.readValues(body), (chunk, firstIndex) -> {
+            Set<Long> existing = new HashSet<>(authorRepository.findExistingIds(chunk));
+            authorRepository.deleteAllByIdInBatch(existing);
+            existing.forEach(authorOutbox::deleted);
+            List<BulkItemError> errors = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!existing.contains(chunk.get(i))) {
+                    errors.add(new BulkItemError(firstIndex + i, chunk.get(i), "Author not found"));
+                }
+            }
+            addAfterCommit(changed, existing);
+            return errors;
+        });
+        changed.forEach(authorChangeNotifier::authorChanged);
+        return result;
+    }
+
+    // A chunk that fails is rolled back and replayed item by item, so its ids only count once committed
+    private static void addAfterCommit(Set<Long> changed, Collection<Long> ids) {
+        List<Long> committed = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changed.addAll(committed);
+            }
+        });
     }
 
-    public void deleteAuthor(Long id) {
-        authorRepository.deleteById(id);
+    /**
+     * Clamps a requested page size to between 1 and {@value #MAX_PAGE_SIZE}.
+     */
+    public static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.example.authorservice.controller;
+
+import com.example.authorservice.model.Author;
+import com.example.authorservice.service.AuthorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authors;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create"
+})
+@AutoConfigureMockMvc
+class AuthorControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private AuthorService authorService;
+
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        Author created = new Author();
+        created.setName("Frank Herbert");
+        created.setBiography("Wrote Dune");
+        author = authorService.createAuthor(created);
+    }
+
+    @Test
+    void putAnswersWithTheUpdatedAuthorAndItsEntityTag() throws Exception {
+        mockMvc.perform(update(author.getId(), "F. Herbert"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (author.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("$.name").value("F. Herbert"))
+                .andExpect(jsonPath("$.version").value(author.getVersion() + 1));
+    }
+
+    @Test
+    void putWithIfMatchAppliesOnlyToTheVersionSeen() throws Exception {
+        String etag = "W/\"" + author.getVersion() + "\"";
+        String next = mockMvc.perform(update(author.getId(), "F. Herbert").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("F. Herbert"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(update(author.getId(), "Frank P. Herbert").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(""));
+        mockMvc.perform(update(author.getId(), "Frank P. Herbert").header(HttpHeaders.IF_MATCH, next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Frank P. Herbert"));
+    }
+
+    @Test
+    void deleteWithIfMatchAppliesOnlyToTheVersionSeen() throws Exception {
+        mockMvc.perform(delete("/api/authors/{id}", author.getId()).header(HttpHeaders.IF_MATCH, "W/\"" + (author.getVersion() + 1) + "\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/authors/{id}", author.getId()).header(HttpHeaders.IF_MATCH, "W/\"" + author.getVersion() + "\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/authors/{id}", author.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void putToAMissingAuthorIsNotFound() throws Exception {
+        mockMvc.perform(update(-1L, "F. Herbert"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void batchLookupsTakeAtMostOnePageOfIds() throws Exception {
+        String page = LongStream.rangeClosed(1, AuthorService.MAX_PAGE_SIZE).mapToObj(Long::toString)
+                .collect(Collectors.joining(",", "[", "]"));
+        String overPage = page.replace("]", ",0]");
+        for (String path : List.of("/api/authors/batch", "/api/authors/summary/batch")) {
+            mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(page))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(overPage))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private MockHttpServletRequestBuilder update(Long id, String name) {
+        return put("/api/authors/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"" + name + "\",\"biography\":\"Wrote Dune\"}");
+    }
+}
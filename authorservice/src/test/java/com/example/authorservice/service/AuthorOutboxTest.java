@@ -0,0 +1,120 @@
+package com.example.authorservice.service;
+
+import com.example.authorservice.model.AuthorEvent;
+import com.example.authorservice.repository.AuthorEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+        // Positions are assigned by the test only
+        "author-events.sequence-interval=PT1H",
+        "author-events.retention=7d"
+})
+@AutoConfigureMockMvc
+class AuthorOutboxTest {
+    @Autowired
+    private AuthorOutbox authorOutbox;
+    @Autowired
+    private AuthorEventRepository authorEventRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void eventsAreFedInCommitOrderNotIdOrder() throws Exception {
+        long head = authorOutbox.getHeadPosition();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        // Takes the lower id but commits last
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transaction().executeWithoutResult(status -> {
+            authorOutbox.updated(1L, "slow");
+            entityManager.flush();
+            recorded.countDown();
+            await(commit);
+        }));
+        await(recorded);
+        transaction().executeWithoutResult(status -> authorOutbox.updated(2L, "fast"));
+
+        // The uncommitted event is skipped, not given a position another event could be fed before
+        authorOutbox.sequence();
+        assertThat(authorIds(authorOutbox.getEvents(head, 10))).containsExactly(2L);
+
+        commit.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        authorOutbox.sequence();
+
+        List<AuthorEvent> events = authorOutbox.getEvents(head, 10);
+        assertThat(authorIds(events)).containsExactly(2L, 1L);
+        assertThat(events.get(0).getId()).isGreaterThan(events.get(1).getId());
+        assertThat(events.get(1).getPosition()).isEqualTo(events.get(0).getPosition() + 1);
+    }
+
+    @Test
+    void readingBelowThePurgedPositionIsGone() throws Exception {
+        long head = authorOutbox.getHeadPosition();
+        for (long authorId = 11; authorId <= 13; authorId++) {
+            long id = authorId;
+            transaction().executeWithoutResult(status -> authorOutbox.updated(id, "author " + id));
+        }
+        authorOutbox.sequence();
+        List<AuthorEvent> events = authorOutbox.getEvents(head, 10);
+        // The first two are past the retention
+        transaction().executeWithoutResult(status -> events.subList(0, 2).forEach(event -> {
+            event.setOccurredAt(Instant.now().minus(Duration.ofDays(8)));
+            authorEventRepository.save(event);
+        }));
+
+        authorOutbox.purge();
+
+        long second = events.get(1).getPosition();
+        assertThat(authorOutbox.getPurgedThrough()).isEqualTo(second);
+        assertThat(authorOutbox.getEvents(head, 10)).isNull();
+        assertThat(authorIds(authorOutbox.getEvents(second, 10))).containsExactly(13L);
+        mockMvc.perform(get("/api/authors/events").param("afterPosition", Long.toString(head)))
+                .andExpect(status().isGone());
+        mockMvc.perform(get("/api/authors/events").param("afterPosition", Long.toString(second)))
+                .andExpect(status().isOk());
+    }
+
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private static List<Long> authorIds(List<AuthorEvent> events) {
+        return events.stream().map(AuthorEvent::getAuthorId).collect(Collectors.toList());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stands in for author-service with authors 1 to {@code authors}, answering the lookups book-service makes
+ * after an injected latency of {@code latency} plus up to {@code jitter}. Like author-service it speaks JSON
+ * or CBOR, whichever the request asks for, but only over HTTP/1.1.
+ */
+public class AuthorServiceStub implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private final int authors;
+    private final long latencyMillis;
+    private final long jitterMillis;
+
+    public AuthorServiceStub(int port, int authors, Duration latency, Duration jitter) throws IOException {
+        this.authors = authors;
+        this.latencyMillis = latency.toMillis();
+        this.jitterMillis = jitter.toMillis();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/api/authors", this::handle);
+        server.createContext("/actuator/health", exchange -> respond(exchange, 200, Map.of("status", "UP"), false));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public URI getBaseUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        boolean cbor = isCbor(exchange.getRequestHeaders().getFirst("Accept"));
+        // /api/authors/summary/batch with an array of ids
+        if ("POST".equals(exchange.getRequestMethod()) && path.length == 5 && "batch".equals(path[4])) {
+            ObjectMapper reader = isCbor(exchange.getRequestHeaders().getFirst("Content-Type")) ? cborMapper : objectMapper;
+            List<Object> found = new ArrayList<>();
+            for (long id : reader.readValue(exchange.getRequestBody(), long[].class)) {
+                if (exists(id)) {
+                    found.add(author(id));
+                }
+            }
+            respond(exchange, 200, found, cbor);
+            return;
+        }
+        // /api/authors/{id} and /api/authors/{id}/summary
+        if ("GET".equals(exchange.getRequestMethod()) && path.length >= 4) {
+            try {
+                long id = Long.parseLong(path[3]);
+                respond(exchange, exists(id) ? 200 : 404, exists(id) ? author(id) : null, cbor);
+                return;
+            } catch (NumberFormatException e) {
+                // Not an id
+            }
+        }
+        respond(exchange, 404, null, cbor);
+    }
+
+    private static boolean isCbor(String mediaType) {
+        return mediaType != null && mediaType.startsWith("application/cbor");
+    }
+
+    private boolean exists(long id) {
+        return id >= 1 && id <= authors;
+    }
+
+    private static Map<String, Object> author(long id) {
+        Map<String, Object> author = new LinkedHashMap<>();
+        author.put("id", id);
+        author.put("name", "Author " + id);
+        return author;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body, boolean cbor) throws IOException {
+        byte[] bytes = body != null ? (cbor ? cborMapper : objectMapper).writeValueAsBytes(body) : new byte[0];
+        exchange.getResponseHeaders().set("Content-Type", cbor ? "application/cbor" : "application/json");
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares a run with the stored baseline. A target regresses when its p99 grew by more than the p99
+ * tolerance or its throughput fell by more than the throughput tolerance; any target failing more than
+ * the allowed share of its requests fails the run regardless of the baseline.
+ */
+public class BaselineCheck {
+    private final double p99Tolerance;
+    private final double throughputTolerance;
+    private final double maxErrorRate;
+
+    public BaselineCheck(double p99Tolerance, double throughputTolerance, double maxErrorRate) {
+        this.p99Tolerance = p99Tolerance;
+        this.throughputTolerance = throughputTolerance;
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    /**
+     * Returns a description of every failure; an empty list means the run passes. Without a baseline
+     * only the error rate is checked.
+     */
+    public List<String> check(BenchmarkResult current, BenchmarkResult baseline) {
+        List<String> failures = new ArrayList<>();
+        current.getTargets().forEach((name, result) -> {
+            if (result.errorRate() > maxErrorRate) {
+                failures.add(String.format(Locale.ROOT, "%s: %.1f%% of requests failed", name, result.errorRate() * 100));
+            }
+        });
+        if (baseline == null) {
+            return failures;
+        }
+        if (!current.isComparableTo(baseline)) {
+            failures.add("The baseline was recorded with different data volumes, rate or author-service setup; "
+                    + "record a new one with --update-baseline");
+            return failures;
+        }
+        baseline.getTargets().forEach((name, expected) -> {
+            TargetResult actual = current.getTargets().get(name);
+            if (actual == null) {
+                return;
+            }
+            if (actual.getP99() > expected.getP99() * (1 + p99Tolerance)) {
+                failures.add(String.format(Locale.ROOT, "%s: p99 %.1fms exceeds baseline %.1fms by more than %.0f%%",
+                        name, actual.getP99(), expected.getP99(), p99Tolerance * 100));
+            }
+            if (actual.getThroughput() < expected.getThroughput() * (1 - throughputTolerance)) {
+                failures.add(String.format(Locale.ROOT, "%s: throughput %.1f/s is below baseline %.1f/s by more than %.0f%%",
+                        name, actual.getThroughput(), expected.getThroughput(), throughputTolerance * 100));
+            }
+        });
+        return failures;
+    }
+}
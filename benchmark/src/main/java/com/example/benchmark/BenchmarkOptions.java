@@ -0,0 +1,189 @@
+package com.example.benchmark;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}. Durations are written like {@code 30s} or {@code 500ms}.
+ */
+public class BenchmarkOptions {
+    private int authors = 200;
+    private int books = 2000;
+    private double rate = 100;
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration warmup = Duration.ofSeconds(10);
+    private Map<String, Integer> mix = parseMix("books:1,with-author:4,author:2");
+    private boolean stubAuthors;
+    private Duration stubLatency = Duration.ofMillis(20);
+    private Duration stubJitter = Duration.ofMillis(10);
+    private Path bookstoreJar = Path.of("../bookstore/target/book-service-0.0.1-SNAPSHOT.jar");
+    private Path authorserviceJar = Path.of("../authorservice/target/author-service-0.0.1-SNAPSHOT.jar");
+    private List<String> bookstoreJvmArgs = List.of();
+    private List<String> authorserviceJvmArgs = List.of();
+    private String profiles;
+    private List<String> bookstoreArgs = List.of();
+    private Path baseline = Path.of("baseline.json");
+    private Path output = Path.of("target/benchmark");
+    private boolean updateBaseline;
+    private double p99Tolerance = 0.25;
+    private double throughputTolerance = 0.1;
+    private double maxErrorRate = 0.01;
+
+    public static BenchmarkOptions parse(String[] args) {
+        BenchmarkOptions options = new BenchmarkOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            int equals = arg.indexOf('=');
+            String name = equals > 0 ? arg.substring(2, equals) : arg.substring(2);
+            String value = equals > 0 ? arg.substring(equals + 1) : "true";
+            switch (name) {
+                case "authors": options.authors = Integer.parseInt(value); break;
+                case "books": options.books = Integer.parseInt(value); break;
+                case "rate": options.rate = Double.parseDouble(value); break;
+                case "duration": options.duration = parseDuration(value); break;
+                case "warmup": options.warmup = parseDuration(value); break;
+                case "mix": options.mix = parseMix(value); break;
+                case "stub-authors": options.stubAuthors = Boolean.parseBoolean(value); break;
+                case "stub-latency": options.stubLatency = parseDuration(value); break;
+                case "stub-jitter": options.stubJitter = parseDuration(value); break;
+                case "bookstore-jar": options.bookstoreJar = Path.of(value); break;
+                case "authorservice-jar": options.authorserviceJar = Path.of(value); break;
+                case "bookstore-jvm-args": options.bookstoreJvmArgs = parseList(value); break;
+                case "authorservice-jvm-args": options.authorserviceJvmArgs = parseList(value); break;
+                case "profiles": options.profiles = value; break;
+                case "bookstore-args": options.bookstoreArgs = parseList(value); break;
+                case "baseline": options.baseline = Path.of(value); break;
+                case "output": options.output = Path.of(value); break;
+                case "update-baseline": options.updateBaseline = Boolean.parseBoolean(value); break;
+                case "p99-tolerance": options.p99Tolerance = Double.parseDouble(value); break;
+                case "throughput-tolerance": options.throughputTolerance = Double.parseDouble(value); break;
+                case "max-error-rate": options.maxErrorRate = Double.parseDouble(value); break;
+                default: throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofMillis(Math.round(Double.parseDouble(value.substring(0, value.length() - 1)) * 1000));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+
+    // Options separated by spaces, e.g. "-Xmx512m -XX:SharedArchiveFile=../bookstore/target/cds/app.jsa"
+    static List<String> parseList(String value) {
+        return value.isBlank() ? List.of() : List.of(value.trim().split("\\s+"));
+    }
+
+    // Target weights, e.g. books:1,with-author:4,author:2
+    static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            mix.put(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        }
+        return mix;
+    }
+
+    public int getAuthors() {
+        return authors;
+    }
+
+    public int getBooks() {
+        return books;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Map<String, Integer> getMix() {
+        return mix;
+    }
+
+    public boolean isStubAuthors() {
+        return stubAuthors;
+    }
+
+    public Duration getStubLatency() {
+        return stubLatency;
+    }
+
+    public Duration getStubJitter() {
+        return stubJitter;
+    }
+
+    public Path getBookstoreJar() {
+        return bookstoreJar;
+    }
+
+    public Path getAuthorserviceJar() {
+        return authorserviceJar;
+    }
+
+    public List<String> getBookstoreJvmArgs() {
+        return bookstoreJvmArgs;
+    }
+
+    public List<String> getAuthorserviceJvmArgs() {
+        return authorserviceJvmArgs;
+    }
+
+    /**
+     * Returns the Spring profiles both services run with, e.g. fast-startup, or null for their defaults.
+     */
+    public String getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * Returns extra application arguments for book-service, e.g. --author-service.encoding=cbor.
+     */
+    public List<String> getBookstoreArgs() {
+        return bookstoreArgs;
+    }
+
+    public Path getBaseline() {
+        return baseline;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public boolean isUpdateBaseline() {
+        return updateBaseline;
+    }
+
+    public double getP99Tolerance() {
+        return p99Tolerance;
+    }
+
+    public double getThroughputTolerance() {
+        return throughputTolerance;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A run's parameters and per-target results, as written to the results and baseline files.
+ */
+public class BenchmarkResult {
+    private int authors;
+    private int books;
+    private double rate;
+    private long durationSeconds;
+    private boolean stubAuthors;
+    private Map<String, Long> startupMillis = new LinkedHashMap<>();
+    private Map<String, TargetResult> targets = new LinkedHashMap<>();
+
+    /**
+     * Returns whether the other run used the same data volumes, load and author-service setup.
+     */
+    public boolean isComparableTo(BenchmarkResult other) {
+        return authors == other.authors && books == other.books && rate == other.rate && stubAuthors == other.stubAuthors;
+    }
+
+    public int getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(int authors) {
+        this.authors = authors;
+    }
+
+    public int getBooks() {
+        return books;
+    }
+
+    public void setBooks(int books) {
+        this.books = books;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public boolean isStubAuthors() {
+        return stubAuthors;
+    }
+
+    public void setStubAuthors(boolean stubAuthors) {
+        this.stubAuthors = stubAuthors;
+    }
+
+    /**
+     * Returns per service how long it took from starting its process until it reported healthy.
+     */
+    public Map<String, Long> getStartupMillis() {
+        return startupMillis;
+    }
+
+    public void setStartupMillis(Map<String, Long> startupMillis) {
+        this.startupMillis = startupMillis;
+    }
+
+    public Map<String, TargetResult> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(Map<String, TargetResult> targets) {
+        this.targets = targets;
+    }
+}
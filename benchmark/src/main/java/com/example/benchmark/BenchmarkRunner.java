@@ -0,0 +1,181 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Boots book-service and author-service (or a stub in its place) on embedded H2 databases, seeds them,
+ * drives a constant arrival rate against the read endpoints and reports latency percentiles per target.
+ * <p>
+ * Build both services with {@code mvn package} first, then run from this directory:
+ * <pre>
+ * java -jar target/benchmark-0.0.1-SNAPSHOT.jar --rate=200 --duration=60s --books=10000
+ * java -jar target/benchmark-0.0.1-SNAPSHOT.jar --stub-authors --stub-latency=50ms --stub-jitter=20ms
+ * java -jar target/benchmark-0.0.1-SNAPSHOT.jar --profiles=fast-startup
+ *      --bookstore-jar=../bookstore/target/cds/book-service-0.0.1-SNAPSHOT-cds.jar
+ *      --bookstore-jvm-args=-XX:SharedArchiveFile=../bookstore/target/cds/app.jsa
+ * java -jar target/benchmark-0.0.1-SNAPSHOT.jar
+ *      "--bookstore-args=--author-view.enabled=false --author-service.cache.maximum-size=0
+ *      --author-service.encoding=cbor --author-service.http2=true"
+ * </pre>
+ * Results go to {@code target/benchmark}: a JSON summary, including how long each service took to
+ * become healthy, and an HdrHistogram percentile distribution per target. The process exits with 1 when the run fails the {@link BaselineCheck} against
+ * {@code baseline.json}; {@code --update-baseline} stores the run as the new baseline instead.
+ */
+public class BenchmarkRunner {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkOptions options = BenchmarkOptions.parse(args);
+        System.exit(new BenchmarkRunner().run(options));
+    }
+
+    int run(BenchmarkOptions options) throws Exception {
+        Files.createDirectories(options.getOutput());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<AutoCloseable> resources = new ArrayList<>();
+        try {
+            URI authorService;
+            List<Long> authorIds;
+            Map<String, Long> startupMillis = new LinkedHashMap<>();
+            List<String> bookServiceArgs = new ArrayList<>(serviceArgs(options, "books"));
+            if (options.isStubAuthors()) {
+                AuthorServiceStub stub = new AuthorServiceStub(freePort(), options.getAuthors(),
+                        options.getStubLatency(), options.getStubJitter());
+                resources.add(stub);
+                authorService = stub.getBaseUri();
+                authorIds = new ArrayList<>();
+                for (long id = 1; id <= options.getAuthors(); id++) {
+                    authorIds.add(id);
+                }
+                // The stub has no event feed, so every author lookup goes to it
+                bookServiceArgs.add("--author-view.enabled=false");
+            } else {
+                ServiceProcess authors = ServiceProcess.start("author-service", options.getAuthorserviceJar(),
+                        options.getAuthorserviceJvmArgs(), freePort(), serviceArgs(options, "authors"),
+                        options.getOutput().resolve("author-service.log"));
+                resources.add(authors);
+                startupMillis.put("author-service", authors.awaitHealthy(client, STARTUP_TIMEOUT).toMillis());
+                authorService = authors.getBaseUri();
+                authorIds = new DataSeeder(client).seedAuthors(authorService, options.getAuthors());
+            }
+
+            bookServiceArgs.add("--author-service.base-url=" + authorService);
+            bookServiceArgs.addAll(options.getBookstoreArgs());
+            ServiceProcess books = ServiceProcess.start("book-service", options.getBookstoreJar(),
+                    options.getBookstoreJvmArgs(), freePort(), bookServiceArgs, options.getOutput().resolve("book-service.log"));
+            resources.add(books);
+            startupMillis.put("book-service", books.awaitHealthy(client, STARTUP_TIMEOUT).toMillis());
+            List<Long> bookIds = new DataSeeder(client).seedBooks(books.getBaseUri(), options.getBooks(), authorIds);
+            System.out.println("Seeded " + authorIds.size() + " authors and " + bookIds.size() + " books");
+
+            LoadGenerator generator = new LoadGenerator(client, options.getRate());
+            Map<String, Function<Random, URI>> targets = Map.of(
+                    "books", random -> books.getBaseUri().resolve("/api/books?size=20&afterId=" + pick(bookIds, random)),
+                    "with-author", random -> books.getBaseUri().resolve("/api/books/" + pick(bookIds, random) + "/with-author"),
+                    "author", random -> authorService.resolve("/api/authors/" + pick(authorIds, random)));
+            options.getMix().forEach((name, weight) -> {
+                if (!targets.containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown target " + name + ", expected one of " + targets.keySet());
+                }
+                generator.addTarget(name, weight, targets.get(name));
+            });
+
+            System.out.println("Warming up for " + options.getWarmup().toSeconds() + "s");
+            generator.run(options.getWarmup());
+            System.out.println("Running " + options.getRate() + " requests/s for " + options.getDuration().toSeconds() + "s");
+            Map<String, LoadGenerator.Stats> stats = generator.run(options.getDuration());
+
+            BenchmarkResult result = new BenchmarkResult();
+            result.setAuthors(options.getAuthors());
+            result.setBooks(options.getBooks());
+            result.setRate(options.getRate());
+            result.setDurationSeconds(options.getDuration().toSeconds());
+            result.setStubAuthors(options.isStubAuthors());
+            result.setStartupMillis(startupMillis);
+            for (Map.Entry<String, LoadGenerator.Stats> entry : stats.entrySet()) {
+                result.getTargets().put(entry.getKey(), TargetResult.of(entry.getValue()));
+                try (PrintStream out = new PrintStream(options.getOutput().resolve(entry.getKey() + ".hgrm").toFile())) {
+                    entry.getValue().getHistogram().outputPercentileDistribution(out, 1000.0);
+                }
+            }
+            return report(options, result);
+        } finally {
+            Collections.reverse(resources);
+            for (AutoCloseable resource : resources) {
+                resource.close();
+            }
+        }
+    }
+
+    private int report(BenchmarkOptions options, BenchmarkResult result) throws IOException {
+        result.getStartupMillis().forEach((service, millis) -> System.out.println(service + " healthy after " + millis + " ms"));
+        System.out.println(String.format(Locale.ROOT, "%-12s %9s %7s %9s %9s %9s %9s %9s %9s",
+                "target", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        result.getTargets().forEach((name, target) -> System.out.println(String.format(Locale.ROOT,
+                "%-12s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f", name, target.getRequests(), target.getErrors(),
+                target.getThroughput(), target.getP50(), target.getP90(), target.getP99(), target.getP999(), target.getMax())));
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(options.getOutput().resolve("results.json").toFile(), result);
+        if (options.isUpdateBaseline()) {
+            objectMapper.writeValue(options.getBaseline().toFile(), result);
+            System.out.println("Stored the run as baseline " + options.getBaseline());
+            return 0;
+        }
+
+        BenchmarkResult baseline = null;
+        if (Files.exists(options.getBaseline())) {
+            baseline = objectMapper.readValue(options.getBaseline().toFile(), BenchmarkResult.class);
+        } else {
+            System.out.println("No baseline at " + options.getBaseline() + ", record one with --update-baseline");
+        }
+        List<String> failures = new BaselineCheck(options.getP99Tolerance(), options.getThroughputTolerance(),
+                options.getMaxErrorRate()).check(result, baseline);
+        failures.forEach(failure -> System.out.println("FAIL " + failure));
+        return failures.isEmpty() ? 0 : 1;
+    }
+
+    private static List<String> serviceArgs(BenchmarkOptions options, String database) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                // The schema migrations are for MySQL
+                "--spring.flyway.enabled=false"));
+        if (options.getProfiles() != null) {
+            args.add("--spring.profiles.active=" + options.getProfiles());
+        }
+        return args;
+    }
+
+    private static long pick(List<Long> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
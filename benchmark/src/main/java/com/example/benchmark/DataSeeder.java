@@ -0,0 +1,82 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fills the services through their bulk endpoints and reads back the ids they assigned.
+ */
+public class DataSeeder {
+    private static final int CHUNK_SIZE = 1000;
+    private static final int PAGE_SIZE = 100;
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random = new Random(42);
+
+    public DataSeeder(HttpClient client) {
+        this.client = client;
+    }
+
+    public List<Long> seedAuthors(URI authorService, int count) throws IOException, InterruptedException {
+        List<Object> authors = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            authors.add(Map.of("name", "Author " + i, "biography", "Biography of author " + i + ". ".repeat(20)));
+        }
+        post(authorService.resolve("/api/authors/bulk"), authors);
+        return ids(authorService.resolve("/api/authors/summary"));
+    }
+
+    public List<Long> seedBooks(URI bookService, int count, List<Long> authorIds) throws IOException, InterruptedException {
+        List<Object> books = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            long authorId = authorIds.get(random.nextInt(authorIds.size()));
+            books.add(Map.of("title", "Book " + i, "isbn", "isbn-" + i, "authorId", authorId));
+        }
+        post(bookService.resolve("/api/books/bulk"), books);
+        return ids(bookService.resolve("/api/books/summary"));
+    }
+
+    // Sent as NDJSON in chunks, so that no single request holds the whole data set
+    private void post(URI uri, List<Object> items) throws IOException, InterruptedException {
+        for (int start = 0; start < items.size(); start += CHUNK_SIZE) {
+            StringBuilder body = new StringBuilder();
+            for (Object item : items.subList(start, Math.min(items.size(), start + CHUNK_SIZE))) {
+                body.append(objectMapper.writeValueAsString(item)).append('\n');
+            }
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            JsonNode result = objectMapper.readTree(response.body());
+            if (response.statusCode() != 200 || result.path("failed").asInt() > 0) {
+                throw new IllegalStateException("Seeding " + uri + " failed: " + response.statusCode() + " " + response.body());
+            }
+        }
+    }
+
+    private List<Long> ids(URI summaries) throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(summaries + "?size=" + PAGE_SIZE + "&afterId=" + afterId)).build();
+            JsonNode page = objectMapper.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            page.forEach(item -> ids.add(item.get("id").asLong()));
+            if (page.size() < PAGE_SIZE) {
+                return ids;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+}
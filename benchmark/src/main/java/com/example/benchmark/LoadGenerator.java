@@ -0,0 +1,134 @@
+package com.example.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Drives an open-model load: requests are started at a constant arrival rate whether or not earlier ones
+ * have completed, and each latency is measured from the time the request was due, not from when it was
+ * actually sent. A stalled service therefore shows up in the percentiles instead of slowing the load
+ * down (no coordinated omission).
+ */
+public class LoadGenerator {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final double rate;
+    private final List<Target> targets = new ArrayList<>();
+    private final Random random = new Random(7);
+    private int totalWeight;
+
+    public LoadGenerator(HttpClient client, double rate) {
+        this.client = client;
+        this.rate = rate;
+    }
+
+    /**
+     * Adds a target that receives {@code weight} parts of the load, with a request URI drawn per request.
+     */
+    public void addTarget(String name, int weight, Function<Random, URI> uri) {
+        targets.add(new Target(name, weight, uri));
+        totalWeight += weight;
+    }
+
+    public Map<String, Stats> run(Duration duration) throws InterruptedException {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        targets.forEach(target -> stats.put(target.name, new Stats()));
+        AtomicLong outstanding = new AtomicLong();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Target target = pick();
+            Stats targetStats = stats.get(target.name);
+            HttpRequest request = HttpRequest.newBuilder(target.uri.apply(random)).timeout(REQUEST_TIMEOUT).build();
+            outstanding.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+                if (error != null || response.statusCode() >= 400) {
+                    targetStats.errors.incrementAndGet();
+                } else {
+                    targetStats.histogram.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                }
+                outstanding.decrementAndGet();
+            });
+        }
+
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        double seconds = duration.toNanos() / 1e9;
+        stats.values().forEach(targetStats -> targetStats.seconds = seconds);
+        return stats;
+    }
+
+    private Target pick() {
+        int value = random.nextInt(totalWeight);
+        for (Target target : targets) {
+            value -= target.weight;
+            if (value < 0) {
+                return target;
+            }
+        }
+        return targets.get(targets.size() - 1);
+    }
+
+    private static class Target {
+        private final String name;
+        private final int weight;
+        private final Function<Random, URI> uri;
+
+        Target(String name, int weight, Function<Random, URI> uri) {
+            this.name = name;
+            this.weight = weight;
+            this.uri = uri;
+        }
+    }
+
+    /**
+     * Latencies in microseconds of the successful requests of one target, and its error count.
+     */
+    public static class Stats {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final AtomicLong errors = new AtomicLong();
+        private double seconds;
+
+        public Histogram getHistogram() {
+            return histogram;
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public double getSeconds() {
+            return seconds;
+        }
+    }
+}
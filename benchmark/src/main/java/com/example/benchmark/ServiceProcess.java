@@ -0,0 +1,83 @@
+package com.example.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A service started from its executable jar in a child JVM, with its output written to a log file.
+ */
+public class ServiceProcess implements AutoCloseable {
+    private final String name;
+    private final Process process;
+    private final Path log;
+    private final URI baseUri;
+    private final long startedAt = System.nanoTime();
+
+    private ServiceProcess(String name, Process process, Path log, int port) {
+        this.name = name;
+        this.process = process;
+        this.log = log;
+        this.baseUri = URI.create("http://localhost:" + port);
+    }
+
+    public static ServiceProcess start(String name, Path jar, List<String> jvmArgs, int port, List<String> args, Path log)
+            throws IOException {
+        if (!jar.toFile().isFile()) {
+            throw new IllegalStateException(jar + " not found, build it with mvn package first");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(args);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new ServiceProcess(name, process, log, port);
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Waits until the actuator health endpoint answers 200 and returns how long that took since the process started.
+     */
+    public Duration awaitHealthy(HttpClient client, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/actuator/health")).timeout(Duration.ofSeconds(2)).build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - startedAt);
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException(name + " did not become healthy within " + timeout + ", see " + log);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.benchmark;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The outcome of one target in a run; latencies are in milliseconds.
+ */
+public class TargetResult {
+    private long requests;
+    private long errors;
+    private double throughput;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double p999;
+    private double max;
+
+    public static TargetResult of(LoadGenerator.Stats stats) {
+        Histogram histogram = stats.getHistogram();
+        TargetResult result = new TargetResult();
+        result.requests = histogram.getTotalCount() + stats.getErrors();
+        result.errors = stats.getErrors();
+        result.throughput = histogram.getTotalCount() / stats.getSeconds();
+        result.p50 = histogram.getValueAtPercentile(50) / 1000.0;
+        result.p90 = histogram.getValueAtPercentile(90) / 1000.0;
+        result.p99 = histogram.getValueAtPercentile(99) / 1000.0;
+        result.p999 = histogram.getValueAtPercentile(99.9) / 1000.0;
+        result.max = histogram.getMaxValue() / 1000.0;
+        return result;
+    }
+
+    public double errorRate() {
+        return requests > 0 ? (double) errors / requests : 0;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public void setP50(double p50) {
+        this.p50 = p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public void setP90(double p90) {
+        this.p90 = p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public void setP99(double p99) {
+        this.p99 = p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public void setP999(double p999) {
+        this.p999 = p999;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+}
@@ -1,19 +1,51 @@
 package com.example;
 
+import org.springframework.beans.factory.annotation.Value;
+import com.example.common.config.RequestStats;
+import com.example.common.config.StartupTimings;
+import com.example.config.RemoteCallStatsFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class BookServiceApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(BookServiceApplication.class, args);
+        // Work handed to reactor schedulers, e.g. the JPA scheduler, counts towards the request that handed it over
+        Schedulers.onScheduleHook("request-stats", RequestStats::propagate);
+        SpringApplication application = new SpringApplication(BookServiceApplication.class);
+        StartupTimings.install(application);
+        application.run(args);
     }
 
     @Bean
     public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+        return WebClient.builder().filter(new RemoteCallStatsFilter());
     }
-}
\ No newline at end of file
+
+    // Blocking JPA calls run here, sized to the connection pool so callers queue instead of waiting on connections
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jpaScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        return Schedulers.newBoundedElastic(poolSize, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "jpa");
+    }
+
+    // List pages have no single version, so their weak ETag is a hash of the body; a match still saves the transfer
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listEtagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/books");
+        return registration;
+    }
+}
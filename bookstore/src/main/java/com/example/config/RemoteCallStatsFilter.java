@@ -0,0 +1,33 @@
+package com.example.config;
+
+import com.example.common.config.RequestStats;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts WebClient calls into the {@link RequestStats} of the request that made them. Calls are keyed by
+ * their URI template where there is one, so that calls for different ids count as the same endpoint.
+ */
+public class RemoteCallStatsFilter implements ExchangeFilterFunction {
+    // Set by WebClient when the URI is given as a template
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            RequestStats stats = RequestStats.current();
+            if (stats == null) {
+                return next.exchange(request);
+            }
+            String target = request.method() + " " + request.attribute(URI_TEMPLATE_ATTRIBUTE)
+                    .map(String::valueOf)
+                    .orElse(request.url().getPath());
+            long start = System.nanoTime();
+            return next.exchange(request).doFinally(signal -> stats.remoteCall(target, System.nanoTime() - start));
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.controller;
+
+import com.example.service.AuthorServiceClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cache/authors")
+public class AuthorCacheController {
+    private final AuthorServiceClient authorServiceClient;
+
+    public AuthorCacheController(AuthorServiceClient authorServiceClient) {
+        this.authorServiceClient = authorServiceClient;
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> evictAuthor(@PathVariable Long id) {
+        // This API is called by the author-service when an author is updated or deleted
+        authorServiceClient.evictAuthor(id);
+        return ResponseEntity.ok().build();
+    }
+}
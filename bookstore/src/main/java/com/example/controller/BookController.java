@@ -1,32 +1,120 @@
 package com.example.controller;
 
+import com.example.common.dto.BulkResult;
+import com.example.common.dto.ResourceVersion;
+import com.example.common.service.WriteOutcome;
+import com.example.dto.BookQuery;
+import com.example.dto.BookSummary;
+import com.example.dto.BookWithAuthorDTO;
 import com.example.model.Book;
+import com.example.service.BookQueryService;
 import com.example.service.BookService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
     private final BookService bookService;
+    private final BookQueryService bookQueryService;
+    private final CacheControl listCacheControl;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookQueryService bookQueryService,
+                          @Value("${api.list-max-age:10s}") Duration listMaxAge) {
         this.bookService = bookService;
+        this.bookQueryService = bookQueryService;
+        this.listCacheControl = CacheControl.maxAge(listMaxAge).cachePublic();
     }
 
     @GetMapping
-    public List<Book> getAllBooks() {
-        // This API is called to retrieve all books
-        return bookService.getAllBooks();
+    public ResponseEntity<List<Book>> getBooks(@RequestParam(defaultValue = "0") long afterId,
+                                               @RequestParam(defaultValue = "20") int size) {
+        // This API is called to retrieve books one keyset page at a time
+        return keysetPage(bookService.getBooks(afterId, size), Book::getId, size);
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<BookSummary>> getBookSummaries(@RequestParam(defaultValue = "0") long afterId,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        // This API is called to list books with only their id, title and author id, one keyset page at a time
+        return keysetPage(bookService.getBookSummaries(afterId, size), BookSummary::getId, size);
+    }
+
+    @GetMapping("/by-author/{authorId}")
+    public ResponseEntity<List<Book>> getBooksByAuthor(@PathVariable Long authorId,
+                                                       @RequestParam(defaultValue = "0") long afterId,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        // This API is called to retrieve the books of an author one keyset page at a time
+        return keysetPage(bookService.getBooksByAuthor(authorId, afterId, size), Book::getId, size);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Book>> searchBooks(@RequestParam(required = false) String isbn,
+                                                  @RequestParam(required = false) String title,
+                                                  @RequestParam(required = false) String q,
+                                                  @RequestParam(defaultValue = "20") int size) {
+        // This API is called to find books by exact isbn, by title prefix or by words of the title
+        // Exactly one of the criteria must be given; each is answered from an index
+        if ((isbn != null ? 1 : 0) + (title != null ? 1 : 0) + (q != null ? 1 : 0) != 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Book> books;
+        if (isbn != null) {
+            Book book = bookService.getBookByIsbn(isbn);
+            books = book != null ? List.of(book) : List.of();
+        } else if (title != null) {
+            books = bookService.searchByTitlePrefix(title, size);
+        } else {
+            books = bookService.searchByTitleWords(q, size);
+        }
+        return ResponseEntity.ok().cacheControl(listCacheControl).body(books);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        // This API is called to export all books as newline-delimited JSON with constant memory
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookService::exportBooks);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
         // This API is called to retrieve a specific book by its ID
+        // A revalidation is answered from the cached version projection, without loading or serializing the book
+        if (!headers.getIfNoneMatch().isEmpty() || headers.getIfModifiedSince() >= 0) {
+            ResourceVersion version = bookService.getBookVersion(id);
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (notModified(headers, version)) {
+                return validators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version.getVersion(), version.getUpdatedAt())
+                        .build();
+            }
+        }
         Book book = bookService.getBookById(id);
-        return book != null ? ResponseEntity.ok(book) : ResponseEntity.notFound().build();
+        return book != null
+                ? validators(ResponseEntity.ok(), book.getVersion(), book.getUpdatedAt()).body(book)
+                : ResponseEntity.notFound().build();
     }
 
     @PostMapping
@@ -36,24 +124,146 @@ public class BookController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book bookDetails) {
+    public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book bookDetails,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // This API is called to update an existing book
-        Book updatedBook = bookService.updateBook(id, bookDetails);
-        return updatedBook != null ? ResponseEntity.ok(updatedBook) : ResponseEntity.notFound().build();
+        // With If-Match the update only applies to the version the client has seen. The response carries the
+        // book as written with its new entity tag, so a client can chain the next conditional update.
+        WriteOutcome outcome = bookService.updateBook(id, bookDetails, expectedVersion(ifMatch));
+        if (outcome != WriteOutcome.APPLIED) {
+            return toResponse(outcome).build();
+        }
+        Book book = bookService.getWrittenBook(id);
+        // Deleted again in between
+        return book != null
+                ? validators(ResponseEntity.ok(), book.getVersion(), book.getUpdatedAt()).body(book)
+                : ResponseEntity.notFound().build();
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteBook(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // This API is called to delete a book
-        bookService.deleteBook(id);
-        return ResponseEntity.ok().build();
+        return toResponse(bookService.deleteBook(id, expectedVersion(ifMatch))).build();
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkResult createBooks(InputStream body) throws IOException {
+        // This API is called to create many books from a JSON array or an NDJSON stream
+        return bookService.createBooks(body);
+    }
+
+    @PutMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkResult updateBooks(InputStream body) throws IOException {
+        // This API is called to update many books, matched by id, from a JSON array or an NDJSON stream
+        return bookService.updateBooks(body);
+    }
+
+    @DeleteMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkResult deleteBooks(InputStream body) throws IOException {
+        // This API is called to delete many books given their ids as a JSON array or an NDJSON stream
+        return bookService.deleteBooks(body);
     }
 
     @GetMapping("/{id}/with-author")
-    public ResponseEntity<String> getBookWithAuthor(@PathVariable Long id) {
+    public Mono<ResponseEntity<String>> getBookWithAuthor(@PathVariable Long id) {
         // This API is called to retrieve a book with its author information
-        // It demonstrates calling the author-service
-        String result = bookService.getBookWithAuthor(id);
-        return ResponseEntity.ok(result);
+        // It demonstrates calling the author-service without holding a request thread while waiting
+        return bookService.getBookWithAuthor(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/with-authors")
+    public Page<BookWithAuthorDTO> getBooksWithAuthors(@RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        // This API is called to retrieve a page of books together with their authors
+        // The authors of the page are fetched from the author-service in one batched call
+        return bookService.getBooksWithAuthors(page, size);
+    }
+
+    @GetMapping(value = "/with-authors/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookWithAuthorDTO> streamBooksWithAuthors() {
+        // This API is called to stream all books with their authors as newline-delimited JSON
+        return bookService.streamBooksWithAuthors();
+    }
+
+    @PostMapping("/query")
+    public Mono<ResponseEntity<Map<String, List<Map<String, Object>>>>> queryBooks(@RequestBody Map<String, BookQuery> queries) {
+        // This API is called to fetch books with only the fields the client selects, including author fields,
+        // for several named selections in one round trip. The authors of all selections are resolved together.
+        if (!bookQueryService.isValid(queries)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return bookQueryService.query(queries).map(ResponseEntity::ok);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Void> handleConstraintViolation(DataIntegrityViolationException e) {
+        // A write that would duplicate an isbn
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    // The Link header points to the next page while the current page is full
+    private <T> ResponseEntity<List<T>> keysetPage(List<T> items, Function<T, Long> id, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(listCacheControl);
+        if (!items.isEmpty() && items.size() == BookService.pageSize(size)) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("afterId", id.apply(items.get(items.size() - 1)))
+                    .replaceQueryParam("size", items.size())
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(items);
+    }
+
+    private static ResponseEntity.HeadersBuilder<?> toResponse(WriteOutcome outcome) {
+        switch (outcome) {
+            case APPLIED:
+                return ResponseEntity.ok();
+            case VERSION_CONFLICT:
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+            default:
+                return ResponseEntity.notFound();
+        }
+    }
+
+    // Weak, because Tomcat does not compress responses that carry a strong entity tag
+    private static String etag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    // Clients and caches must revalidate before reusing a stored copy, which costs them a 304 at most
+    private static ResponseEntity.BodyBuilder validators(ResponseEntity.BodyBuilder response, long version, Instant updatedAt) {
+        response.eTag(etag(version)).cacheControl(CacheControl.noCache());
+        if (updatedAt != null) {
+            response.lastModified(updatedAt);
+        }
+        return response;
+    }
+
+    // If-None-Match takes precedence over If-Modified-Since; Last-Modified only has second precision
+    private static boolean notModified(HttpHeaders headers, ResourceVersion version) {
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream().anyMatch(tag -> {
+                Long matched = expectedVersion(tag);
+                return matched == null || matched == version.getVersion();
+            });
+        }
+        return version.getUpdatedAt() != null
+                && version.getUpdatedAt().getEpochSecond() <= headers.getIfModifiedSince() / 1000;
+    }
+
+    // Parses an If-Match header such as "3" or W/"3"; "*" or no header means unconditional
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim().replaceFirst("^W/", "").replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            // An entity tag we never issued cannot match any version
+            return -1L;
+        }
     }
-}
\ No newline at end of file
+}
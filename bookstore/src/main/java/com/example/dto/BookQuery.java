@@ -0,0 +1,46 @@
+package com.example.dto;
+
+import java.util.List;
+
+/**
+ * One selection of a query request: the books to return, either by id or as a keyset page,
+ * and the fields to return for each. Author fields are written as {@code author.name}.
+ */
+public class BookQuery {
+    private List<Long> ids;
+    private long afterId;
+    private int size = 20;
+    private List<String> fields;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(long afterId) {
+        this.afterId = afterId;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public void setFields(List<String> fields) {
+        this.fields = fields;
+    }
+}
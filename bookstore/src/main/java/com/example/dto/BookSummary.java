@@ -0,0 +1,29 @@
+package com.example.dto;
+
+/**
+ * The listing view of a book.
+ * Selected by a constructor projection, so it is never managed by the persistence context.
+ */
+public class BookSummary {
+    private final Long id;
+    private final String title;
+    private final Long authorId;
+
+    public BookSummary(Long id, String title, Long authorId) {
+        this.id = id;
+        this.title = title;
+        this.authorId = authorId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+}
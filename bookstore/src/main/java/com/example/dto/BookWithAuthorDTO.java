@@ -0,0 +1,54 @@
+package com.example.dto;
+
+import com.example.model.Book;
+
+public class BookWithAuthorDTO {
+    private Long id;
+    private String title;
+    private String isbn;
+    private AuthorDTO author;
+
+    public BookWithAuthorDTO() {
+    }
+
+    public BookWithAuthorDTO(Book book, AuthorDTO author) {
+        this.id = book.getId();
+        this.title = book.getTitle();
+        this.isbn = book.getIsbn();
+        this.author = author;
+    }
+
+    // Getters and setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public AuthorDTO getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(AuthorDTO author) {
+        this.author = author;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.model;
+
+import javax.persistence.*;
+
+// Local copy of the authors' names, kept up to date from author-service's change events
+@Entity
+@Table(name = "author_view")
+public class AuthorView {
+    @Id
+    private Long id;
+    private String name;
+
+    // Getters and setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
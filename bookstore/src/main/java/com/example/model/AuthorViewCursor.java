@@ -0,0 +1,52 @@
+package com.example.model;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// The feed position of the last author event applied to author_view, and the instance leasing the right
+// to update the view; a single row, locked by every transaction that updates the view
+@Entity
+@Table(name = "author_view_position")
+public class AuthorViewCursor {
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+    private long lastPosition;
+    private String owner;
+    private Instant leaseUntil;
+
+    // Getters and setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getLastPosition() {
+        return lastPosition;
+    }
+
+    public void setLastPosition(long lastPosition) {
+        this.lastPosition = lastPosition;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+}
@@ -1,16 +1,37 @@
 package com.example.model;
 
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import javax.persistence.*;
+import java.time.Instant;
 
+// Kept in the second-level cache; READ_WRITE soft-locks an entry while a write commits
 @Entity
-@Table(name = "books")
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
+// Lookups by isbn and author and title prefix searches are served by these indexes
+@Table(name = "books",
+        uniqueConstraints = @UniqueConstraint(name = "uk_books_isbn", columnNames = "isbn"),
+        indexes = {
+                @Index(name = "idx_books_author_id", columnList = "authorId"),
+                @Index(name = "idx_books_title", columnList = "title")
+        })
 public class Book {
+    // A pooled sequence (a table on MySQL) hands out ids in blocks, which lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     private String title;
     private String isbn;
     private Long authorId;
+    // Incremented on every write; exposed as the ETag for conditional requests
+    @Version
+    private long version;
+    // Set on every write; exposed as Last-Modified
+    @UpdateTimestamp
+    private Instant updatedAt;
 
     // Getters and setters
 
@@ -46,4 +67,20 @@ public class Book {
     public void setAuthorId(Long authorId) {
         this.authorId = authorId;
     }
-}
\ No newline at end of file
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.repository;
+
+import com.example.model.AuthorViewCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface AuthorViewCursorRepository extends JpaRepository<AuthorViewCursor, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from AuthorViewCursor c where c.id = :id")
+    Optional<AuthorViewCursor> findForUpdate(Long id);
+}
@@ -0,0 +1,15 @@
+package com.example.repository;
+
+import com.example.model.AuthorView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface AuthorViewRepository extends JpaRepository<AuthorView, Long> {
+
+    @Query("select v.id from AuthorView v where v.id > :afterId and v.id <= :throughId")
+    List<Long> findIdsBetween(long afterId, long throughId);
+}
@@ -1,7 +1,91 @@
 package com.example.repository;
 
+import com.example.common.dto.ResourceVersion;
+import com.example.common.service.RowCacheInvalidator;
+import com.example.dto.BookSummary;
 import com.example.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+// Declared queries run in read-only transactions, which are routed to a replica
+@Transactional(readOnly = true)
 public interface BookRepository extends JpaRepository<Book, Long> {
+    int STREAM_FETCH_SIZE = 500;
+
+    // Keyset pagination: seeks past the last id of the previous page instead of counting an offset.
+    // The query cache keeps the ids of each page; the rows themselves come from the entity cache.
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // The query cache keeps each page of summaries until the next write to the table
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new com.example.dto.BookSummary(b.id, b.title, b.authorId) from Book b " +
+            "where b.id > :afterId order by b.id")
+    List<BookSummary> findSummaries(Long afterId, Pageable pageable);
+
+    Optional<Book> findByIsbn(String isbn);
+
+    // The author index also holds the primary key, so rows come back in id order without a sort
+    List<Book> findByAuthorIdAndIdGreaterThanOrderByIdAsc(Long authorId, Long afterId, Pageable pageable);
+
+    // A range scan of the title index that stops after one page; the collation decides case sensitivity
+    List<Book> findByTitleStartingWithOrderByTitleAscIdAsc(String prefix, Pageable pageable);
+
+    // MySQL only, relies on the FULLTEXT index from the V2 migration; best matches first, ties by id
+    @Query(value = "select * from books where match(title) against (:query in boolean mode) " +
+            "order by match(title) against (:query in boolean mode) desc, id limit :limit",
+            nativeQuery = true)
+    List<Book> searchTitle(String query, int limit);
+
+    // Fallback for databases without the FULLTEXT index; scans the table
+    List<Book> findByTitleContainingIgnoreCaseOrderByIdAsc(String text, Pageable pageable);
+
+    // Single-statement writes: no entity is loaded first. The version guard is skipped when null.
+    // Native and in their own query space, so that Hibernate does not clear the whole books cache region;
+    // callers evict the written row through RowCacheInvalidator.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = RowCacheInvalidator.QUERY_SPACE))
+    @Query(value = "update books set title = :title, isbn = :isbn, author_id = :authorId, version = version + 1, " +
+            "updated_at = :updatedAt " +
+            "where id = :id and (:version is null or version = :version)", nativeQuery = true)
+    int updateById(Long id, Long version, Instant updatedAt, String title, String isbn, Long authorId);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = RowCacheInvalidator.QUERY_SPACE))
+    @Query(value = "delete from books where id = :id and (:version is null or version = :version)", nativeQuery = true)
+    int deleteById(Long id, Long version);
+
+    // Answers conditional GETs without loading the row; cached until the next write to the table
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new com.example.common.dto.ResourceVersion(b.version, b.updatedAt) from Book b where b.id = :id")
+    Optional<ResourceVersion> findVersionById(Long id);
+
+    @Query("select b.id from Book b where b.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    // Must be consumed inside a transaction and closed afterwards
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
 }
@@ -0,0 +1,51 @@
+package com.example.service;
+
+import com.example.dto.AuthorDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-request author loader with DataLoader semantics: {@link #load} only queues an id, {@link #dispatch}
+ * resolves all queued ids with one batch lookup, and ids resolved earlier in the request are not looked
+ * up again. Not thread-safe; a request uses its own instance from one reactive chain.
+ */
+public class AuthorLoader {
+    private final Function<Collection<Long>, Mono<Map<Long, AuthorDTO>>> batchLookup;
+    private final Set<Long> queued = new LinkedHashSet<>();
+    // A null value marks an author that was looked up and not found
+    private final Map<Long, AuthorDTO> resolved = new HashMap<>();
+
+    public AuthorLoader(Function<Collection<Long>, Mono<Map<Long, AuthorDTO>>> batchLookup) {
+        this.batchLookup = batchLookup;
+    }
+
+    public void load(Long authorId) {
+        if (authorId != null && !resolved.containsKey(authorId)) {
+            queued.add(authorId);
+        }
+    }
+
+    public Mono<Void> dispatch() {
+        if (queued.isEmpty()) {
+            return Mono.empty();
+        }
+        Set<Long> batch = new LinkedHashSet<>(queued);
+        queued.clear();
+        return batchLookup.apply(batch)
+                .doOnNext(authors -> batch.forEach(id -> resolved.put(id, authors.get(id))))
+                .then();
+    }
+
+    /**
+     * Returns an author resolved by an earlier {@link #dispatch}, or null.
+     */
+    public AuthorDTO get(Long authorId) {
+        return authorId != null ? resolved.get(authorId) : null;
+    }
+}
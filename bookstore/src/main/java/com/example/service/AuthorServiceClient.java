@@ -1,21 +1,350 @@
 package com.example.service;
+import com.example.common.config.LogThrottle;
+import com.example.config.AuthorServiceProperties;
 import com.example.dto.AuthorDTO;
+import com.example.dto.AuthorEventDTO;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class AuthorServiceClient {
+    private static final Logger logger = LoggerFactory.getLogger(AuthorServiceClient.class);
+    // Lists are decoded as a whole in either encoding, e.g. a page of 500 author events
+    private static final int MAX_IN_MEMORY_SIZE = 4 * 1024 * 1024;
+    // author-service rejects batch lookups of more ids than one of its pages
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final WebClient webClient;
+    private final MediaType mediaType;
+    // Set when author-service is called with CBOR instead of JSON
+    private final ObjectMapper cborMapper;
+    private final int batchSize;
+    private final ConnectionProvider connectionProvider;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final AuthorServiceProperties.Hedge hedge;
+    // Lookups fail on every request while author-service is down; one report per interval is enough
+    private final LogThrottle lookupErrors = new LogThrottle(Duration.ofSeconds(10));
+    // Single lookups and batch posts take very different times, so each hedges on its own latencies
+    private final LatencyTracker lookupLatencies = new LatencyTracker(256);
+    private final LatencyTracker batchLatencies = new LatencyTracker(256);
+
+    // Optional.empty() marks an author that author-service answered with 404
+    private final AsyncLoadingCache<Long, Optional<AuthorDTO>> authorCache;
 
-    public AuthorServiceClient(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.baseUrl("http://localhost:8081").build();
+    public AuthorServiceClient(WebClient.Builder webClientBuilder, AuthorServiceProperties properties) {
+        AuthorServiceProperties.Pool pool = properties.getPool();
+        this.connectionProvider = ConnectionProvider.builder("author-service")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .evictInBackground(pool.getMaxIdleTime())
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        if (properties.isHttp2()) {
+            // Cleartext HTTP/2 with prior knowledge: concurrent calls share a connection as separate streams
+            httpClient = httpClient.protocol(HttpProtocol.H2C);
+        }
+        boolean cbor = properties.getEncoding() == AuthorServiceProperties.Encoding.CBOR;
+        this.mediaType = cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+        this.cborMapper = cbor ? Jackson2ObjectMapperBuilder.cbor().build() : null;
+        this.batchSize = Math.min(Math.max(properties.getBatchSize(), 1), MAX_BATCH_SIZE);
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.ACCEPT, mediaType.toString())
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE);
+                    if (cbor) {
+                        Jackson2CborDecoder decoder = new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR);
+                        decoder.setMaxInMemorySize(MAX_IN_MEMORY_SIZE);
+                        codecs.customCodecs().register(decoder);
+                    }
+                })
+                .build();
+
+        AuthorServiceProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        this.circuitBreaker = CircuitBreaker.of("author-service", CircuitBreakerConfig.custom()
+                .failureRateThreshold(breaker.getFailureRateThreshold())
+                .slidingWindowSize(breaker.getSlidingWindowSize())
+                .slowCallDurationThreshold(breaker.getSlowCallDurationThreshold())
+                .waitDurationInOpenState(breaker.getWaitDurationInOpenState())
+                .build());
+        this.bulkhead = Bulkhead.of("author-service", BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.hedge = properties.getHedge();
+
+        // Concurrent misses for the same id share one in-flight load; entries older than refreshAfter
+        // are reloaded in the background on access while the cached value keeps being served
+        AuthorServiceProperties.Cache cache = properties.getCache();
+        this.authorCache = Caffeine.newBuilder()
+                .maximumSize(cache.getMaximumSize())
+                .expireAfter(new AuthorExpiry(cache.getTtl().toNanos(), cache.getNegativeTtl().toNanos()))
+                .refreshAfterWrite(cache.getRefreshAfter())
+                .buildAsync(new AuthorLoader());
     }
 
+    /**
+     * Completes empty when the author does not exist or author-service is unavailable, so callers
+     * can degrade to a book without author instead of failing.
+     */
     public Mono<AuthorDTO> getAuthor(Long authorId) {
-        return webClient.get()
-                .uri("/api/authors/{id}", authorId)
+        return cached(authorCache.get(authorId))
+                .flatMap(Mono::justOrEmpty)
+                .onErrorResume(e -> {
+                    logLookupError("author " + authorId, e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Returns the authors that could be resolved; an unavailable author-service yields an empty list.
+     */
+    public Mono<List<AuthorDTO>> getAuthors(Collection<Long> authorIds) {
+        return cached(authorCache.getAll(authorIds))
+                .map(authors -> authors.values().stream()
+                        .flatMap(Optional::stream)
+                        .collect(Collectors.toList()))
+                .onErrorResume(e -> {
+                    logLookupError(authorIds.size() + " authors", e);
+                    return Mono.just(List.of());
+                });
+    }
+
+    private void logLookupError(String what, Throwable e) {
+        long suppressed = lookupErrors.acquire();
+        if (suppressed >= 0) {
+            logger.warn("Error fetching {}: {} ({} more since the last report)", what, e.toString(), suppressed);
+        }
+        logger.debug("Error fetching " + what, e);
+    }
+
+    /**
+     * Returns up to {@code limit} author change events after feed position {@code afterPosition}, in order.
+     * Failures are passed on, as {@link WebClientResponseException.Gone} when some of those events have
+     * been purged.
+     */
+    public Mono<List<AuthorEventDTO>> getAuthorEvents(long afterPosition, int limit) {
+        return attempt(() -> webClient.get()
+                .uri(uri -> uri.path("/api/authors/events")
+                        .queryParam("afterPosition", afterPosition)
+                        .queryParam("limit", limit)
+                        .build())
+                .retrieve()
+                .bodyToMono(listOf(AuthorEventDTO.class)));
+    }
+
+    /**
+     * Returns the feed position of the last author change event. Failures are passed on.
+     */
+    public Mono<Long> getAuthorEventHead() {
+        return attempt(() -> webClient.get()
+                .uri("/api/authors/events/head")
+                .retrieve()
+                .bodyToMono(Long.class));
+    }
+
+    /**
+     * Returns up to {@code size} authors with an id greater than {@code afterId}, bypassing the cache.
+     * Failures are passed on.
+     */
+    public Mono<List<AuthorDTO>> getAuthorSummaries(long afterId, int size) {
+        return attempt(() -> webClient.get()
+                .uri(uri -> uri.path("/api/authors/summary")
+                        .queryParam("afterId", afterId)
+                        .queryParam("size", size)
+                        .build())
                 .retrieve()
-                .bodyToMono(AuthorDTO.class);
+                .bodyToMono(listOf(AuthorDTO.class)));
+    }
+
+    /**
+     * Drops the cached entry of an author, e.g. after author-service reports an update or delete.
+     */
+    public void evictAuthor(Long authorId) {
+        authorCache.synchronous().invalidate(authorId);
+    }
+
+    // Subscribe to a copy so that a cancelled request does not cancel the load shared with other callers
+    private <T> Mono<T> cached(CompletableFuture<T> future) {
+        return Mono.fromFuture(future.copy());
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    private Mono<Optional<AuthorDTO>> fetchAuthor(Long authorId) {
+        return hedged(lookupLatencies, () -> webClient.get()
+                .uri("/api/authors/{id}/summary", authorId)
+                .retrieve()
+                .bodyToMono(AuthorDTO.class)
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(Optional.empty()))
+                .defaultIfEmpty(Optional.empty()));
+    }
+
+    /**
+     * Looks the authors up in batches of at most {@code batchSize} ids, all sent at once; over HTTP/2 they travel
+     * as parallel streams of one connection. Authors are passed on as each batch arrives.
+     */
+    private Mono<List<AuthorDTO>> fetchAuthors(Collection<Long> authorIds) {
+        return Flux.fromIterable(batches(authorIds))
+                .flatMap(batch -> hedged(batchLatencies, () -> webClient.post()
+                        .uri("/api/authors/summary/batch")
+                        .contentType(mediaType)
+                        .body(body(batch))
+                        .retrieve()
+                        .bodyToMono(listOf(AuthorDTO.class))))
+                .flatMapIterable(authors -> authors)
+                .collectList();
+    }
+
+    // WebClient hands request bodies to encoders as streams, which Jackson2CborEncoder does not support yet
+    private BodyInserter<?, ReactiveHttpOutputMessage> body(Object value) {
+        return cborMapper != null
+                ? BodyInserters.fromPublisher(Mono.fromCallable(() -> cborMapper.writeValueAsBytes(value)), byte[].class)
+                : BodyInserters.fromValue(value);
+    }
+
+    private List<List<Long>> batches(Collection<Long> ids) {
+        List<List<Long>> batches = new ArrayList<>();
+        List<Long> batch = new ArrayList<>();
+        for (Long id : ids) {
+            batch.add(id);
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static <T> ParameterizedTypeReference<List<T>> listOf(Class<T> elementType) {
+        return ParameterizedTypeReference.forType(ResolvableType.forClassWithGenerics(List.class, elementType).getType());
+    }
+
+    /**
+     * Sends a second attempt when the first has not answered within the recent p95 latency of the same
+     * kind of call and takes whichever succeeds first. Both lookups are idempotent reads, so duplicates
+     * are harmless.
+     */
+    private <T> Mono<T> hedged(LatencyTracker latencies, Supplier<Mono<T>> call) {
+        Supplier<Mono<T>> timed = () -> Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get().doOnSuccess(result -> latencies.record(System.nanoTime() - start));
+        });
+        Mono<T> primary = attempt(timed);
+        if (!hedge.isEnabled()) {
+            return primary;
+        }
+        long delay = Math.max(hedge.getMinDelay().toNanos(), latencies.percentile(0.95).orElse(0L));
+        return Mono.firstWithValue(primary, Mono.delay(Duration.ofNanos(delay)).then(attempt(timed)));
+    }
+
+    // The bulkhead wraps the circuit breaker so that rejected calls do not count as failures
+    private <T> Mono<T> attempt(Supplier<Mono<T>> call) {
+        return Mono.defer(call)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    private class AuthorLoader implements AsyncCacheLoader<Long, Optional<AuthorDTO>> {
+        @Override
+        public CompletableFuture<Optional<AuthorDTO>> asyncLoad(Long authorId, Executor executor) {
+            return fetchAuthor(authorId).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Map<Long, Optional<AuthorDTO>>> asyncLoadAll(Iterable<? extends Long> authorIds, Executor executor) {
+            Set<Long> ids = new HashSet<>();
+            authorIds.forEach(ids::add);
+            return fetchAuthors(ids)
+                    .map(authors -> {
+                        Map<Long, Optional<AuthorDTO>> loaded = new HashMap<>();
+                        ids.forEach(id -> loaded.put(id, Optional.empty()));
+                        authors.forEach(author -> loaded.put(author.getId(), Optional.of(author)));
+                        return loaded;
+                    })
+                    .toFuture();
+        }
+    }
+
+    private static class AuthorExpiry implements Expiry<Long, Optional<AuthorDTO>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        AuthorExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Long authorId, Optional<AuthorDTO> author, long currentTime) {
+            return author.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long authorId, Optional<AuthorDTO> author, long currentTime, long currentDuration) {
+            return expireAfterCreate(authorId, author, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long authorId, Optional<AuthorDTO> author, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
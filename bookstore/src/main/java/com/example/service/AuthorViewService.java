@@ -0,0 +1,199 @@
+package com.example.service;
+
+import com.example.dto.AuthorDTO;
+import com.example.dto.AuthorEventDTO;
+import com.example.model.AuthorView;
+import com.example.model.AuthorViewCursor;
+import com.example.repository.AuthorViewCursorRepository;
+import com.example.repository.AuthorViewRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers author lookups from the local author_view table, which {@link AuthorViewUpdater} keeps in
+ * sync with author-service's change events.
+ */
+@Service
+public class AuthorViewService {
+    private final AuthorViewRepository authorViewRepository;
+    private final AuthorViewCursorRepository cursorRepository;
+    private final AuthorServiceClient authorServiceClient;
+    private final Scheduler jpaScheduler;
+    private final EntityManager entityManager;
+
+    public AuthorViewService(AuthorViewRepository authorViewRepository, AuthorViewCursorRepository cursorRepository,
+                             AuthorServiceClient authorServiceClient, Scheduler jpaScheduler, EntityManager entityManager) {
+        this.authorViewRepository = authorViewRepository;
+        this.cursorRepository = cursorRepository;
+        this.authorServiceClient = authorServiceClient;
+        this.jpaScheduler = jpaScheduler;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Returns the authors found for the given ids. Only ids missing from the view, e.g. before the first
+     * snapshot completed, are looked up in author-service.
+     */
+    public Mono<Map<Long, AuthorDTO>> getAuthors(Collection<Long> authorIds) {
+        if (authorIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return Mono.fromCallable(() -> findLocal(authorIds))
+                .subscribeOn(jpaScheduler)
+                .flatMap(local -> {
+                    List<Long> missing = authorIds.stream()
+                            .filter(id -> !local.containsKey(id))
+                            .collect(Collectors.toList());
+                    if (missing.isEmpty()) {
+                        return Mono.just(local);
+                    }
+                    return authorServiceClient.getAuthors(missing).map(remote -> {
+                        Map<Long, AuthorDTO> authors = new HashMap<>(local);
+                        remote.forEach(author -> authors.put(author.getId(), author));
+                        return authors;
+                    });
+                });
+    }
+
+    public Mono<AuthorDTO> getAuthor(Long authorId) {
+        if (authorId == null) {
+            return Mono.empty();
+        }
+        return getAuthors(List.of(authorId)).flatMap(authors -> Mono.justOrEmpty(authors.get(authorId)));
+    }
+
+    private Map<Long, AuthorDTO> findLocal(Collection<Long> authorIds) {
+        return authorViewRepository.findAllById(authorIds).stream()
+                .map(view -> {
+                    AuthorDTO author = new AuthorDTO();
+                    author.setId(view.getId());
+                    author.setName(view.getName());
+                    return author;
+                })
+                .collect(Collectors.toMap(AuthorDTO::getId, Function.identity()));
+    }
+
+    /**
+     * Takes or renews the lease on the view for {@code owner}. Returns the feed position of the last applied
+     * event, -1 while no snapshot has been taken, or nothing while another instance holds the lease.
+     */
+    @Transactional
+    public OptionalLong lease(String owner, Duration duration) {
+        AuthorViewCursor cursor = lockCursor();
+        if (cursor.getOwner() != null && !cursor.getOwner().equals(owner) && cursor.getLeaseUntil().isAfter(Instant.now())) {
+            return OptionalLong.empty();
+        }
+        cursor.setOwner(owner);
+        cursor.setLeaseUntil(Instant.now().plus(duration));
+        return OptionalLong.of(cursor.getLastPosition());
+    }
+
+    /**
+     * Copies one page of a snapshot, the authors with an id above {@code afterId} up to {@code throughId}.
+     * Authors in that range that are in the view but not in the page have been deleted meanwhile.
+     */
+    @Transactional
+    public void applySnapshot(String owner, Duration duration, long afterId, long throughId, List<AuthorDTO> authors) {
+        holdLease(owner, duration);
+        Map<Long, String> names = new LinkedHashMap<>();
+        authorViewRepository.findIdsBetween(afterId, throughId).forEach(id -> names.put(id, null));
+        authors.forEach(author -> names.put(author.getId(), author.getName()));
+        apply(names);
+        names.forEach((id, name) -> {
+            if (name == null) {
+                authorServiceClient.evictAuthor(id);
+            }
+        });
+    }
+
+    /**
+     * Marks the snapshot as complete; events after {@code headPosition} are applied from now on.
+     */
+    @Transactional
+    public void completeSnapshot(String owner, Duration duration, long headPosition) {
+        holdLease(owner, duration).setLastPosition(headPosition);
+    }
+
+    /**
+     * Applies a batch of events following {@code afterPosition} in order and moves the cursor past them,
+     * in one transaction.
+     */
+    @Transactional
+    public void applyEvents(String owner, Duration duration, long afterPosition, List<AuthorEventDTO> events) {
+        AuthorViewCursor cursor = holdLease(owner, duration);
+        if (cursor.getLastPosition() != afterPosition) {
+            throw new IllegalStateException("The author view moved to " + cursor.getLastPosition()
+                    + " while events after " + afterPosition + " were fetched");
+        }
+        // Only the last event of each author matters; a null name marks a deletion
+        Map<Long, String> names = new LinkedHashMap<>();
+        for (AuthorEventDTO event : events) {
+            names.put(event.getAuthorId(), AuthorEventDTO.DELETED.equals(event.getType()) ? null : event.getName());
+        }
+        apply(names);
+        cursor.setLastPosition(events.get(events.size() - 1).getPosition());
+        names.keySet().forEach(authorServiceClient::evictAuthor);
+    }
+
+    // Locks the cursor row until commit and checks that the lease is still ours, so that no other instance
+    // updates the view in between
+    private AuthorViewCursor holdLease(String owner, Duration duration) {
+        AuthorViewCursor cursor = lockCursor();
+        if (!owner.equals(cursor.getOwner())) {
+            throw new IllegalStateException("The author view lease was taken over by " + cursor.getOwner());
+        }
+        cursor.setLeaseUntil(Instant.now().plus(duration));
+        return cursor;
+    }
+
+    private AuthorViewCursor lockCursor() {
+        return cursorRepository.findForUpdate(AuthorViewCursor.ID).orElseGet(() -> {
+            // Of several instances creating the row at once, all but one fail and retry at their next poll
+            AuthorViewCursor created = new AuthorViewCursor();
+            created.setId(AuthorViewCursor.ID);
+            created.setLastPosition(-1);
+            entityManager.persist(created);
+            entityManager.flush();
+            return created;
+        });
+    }
+
+    private void apply(Map<Long, String> names) {
+        Map<Long, AuthorView> existing = authorViewRepository.findAllById(names.keySet()).stream()
+                .collect(Collectors.toMap(AuthorView::getId, Function.identity()));
+        List<Long> deleted = new ArrayList<>();
+        names.forEach((id, name) -> {
+            AuthorView view = existing.get(id);
+            if (name == null) {
+                if (view != null) {
+                    deleted.add(id);
+                }
+            } else if (view != null) {
+                view.setName(name);
+            } else {
+                view = new AuthorView();
+                view.setId(id);
+                view.setName(name);
+                entityManager.persist(view);
+            }
+        });
+        if (!deleted.isEmpty()) {
+            authorViewRepository.deleteAllByIdInBatch(deleted);
+        }
+    }
+}
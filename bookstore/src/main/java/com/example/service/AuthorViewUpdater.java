@@ -0,0 +1,110 @@
+package com.example.service;
+
+import com.example.common.config.LogThrottle;
+import com.example.dto.AuthorDTO;
+import com.example.dto.AuthorEventDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Polls author-service's event feed into the local author view. The first run copies all authors,
+ * after reading the feed's head so that changes made during the copy are replayed afterwards.
+ * <p>
+ * When author-service has purged events the view has not applied yet, the view is copied again, which
+ * also drops the authors deleted meanwhile.
+ * <p>
+ * The view is shared by all book-service instances; only the one holding the lease on its cursor row
+ * polls, and it renews the lease with every update. Another instance takes over once the lease expires.
+ */
+@Component
+public class AuthorViewUpdater {
+    private static final Logger logger = LoggerFactory.getLogger(AuthorViewUpdater.class);
+    private static final int EVENT_BATCH_SIZE = 500;
+    private static final int SNAPSHOT_PAGE_SIZE = 100;
+
+    private final AuthorViewService authorViewService;
+    private final AuthorServiceClient authorServiceClient;
+    private final boolean enabled;
+    private final Duration lease;
+    private final String owner = UUID.randomUUID().toString();
+    // Polls fail every interval while author-service is down
+    private final LogThrottle updateErrors = new LogThrottle(Duration.ofMinutes(1));
+
+    public AuthorViewUpdater(AuthorViewService authorViewService, AuthorServiceClient authorServiceClient,
+                             @Value("${author-view.enabled:true}") boolean enabled,
+                             @Value("${author-view.lease:PT30S}") Duration lease) {
+        this.authorViewService = authorViewService;
+        this.authorServiceClient = authorServiceClient;
+        this.enabled = enabled;
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${author-view.poll-interval:PT1S}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            OptionalLong leased = authorViewService.lease(owner, lease);
+            if (leased.isEmpty()) {
+                return;
+            }
+            long cursor = leased.getAsLong();
+            if (cursor < 0 || !applyEvents(cursor)) {
+                takeSnapshot();
+            }
+        } catch (RuntimeException e) {
+            long suppressed = updateErrors.acquire();
+            if (suppressed >= 0) {
+                logger.warn("Error updating the author view: {} ({} more since the last report)", e.toString(), suppressed);
+            }
+            logger.debug("Error updating the author view", e);
+        }
+    }
+
+    // Returns false when events after the cursor have been purged before the view applied them
+    private boolean applyEvents(long cursor) {
+        List<AuthorEventDTO> events;
+        try {
+            do {
+                events = authorServiceClient.getAuthorEvents(cursor, EVENT_BATCH_SIZE).block();
+                if (events == null || events.isEmpty()) {
+                    return true;
+                }
+                authorViewService.applyEvents(owner, lease, cursor, events);
+                cursor = events.get(events.size() - 1).getPosition();
+            } while (events.size() == EVENT_BATCH_SIZE);
+        } catch (WebClientResponseException.Gone e) {
+            logger.warn("Author events after position {} have been purged, copying all authors again", cursor);
+            return false;
+        }
+        return true;
+    }
+
+    private void takeSnapshot() {
+        Long head = authorServiceClient.getAuthorEventHead().block();
+        long afterId = 0;
+        List<AuthorDTO> page;
+        do {
+            page = authorServiceClient.getAuthorSummaries(afterId, SNAPSHOT_PAGE_SIZE).block();
+            if (page == null) {
+                // No answer; the snapshot is taken again at the next poll
+                return;
+            }
+            // The last page covers all ids above the previous one
+            long throughId = page.size() == SNAPSHOT_PAGE_SIZE ? page.get(page.size() - 1).getId() : Long.MAX_VALUE;
+            authorViewService.applySnapshot(owner, lease, afterId, throughId, page);
+            afterId = throughId;
+        } while (page.size() == SNAPSHOT_PAGE_SIZE);
+        authorViewService.completeSnapshot(owner, lease, head != null ? head : 0L);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.service;
+
+import com.example.dto.AuthorDTO;
+import com.example.dto.BookQuery;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.persistence.Tuple;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Answers field-selection queries over books and their authors. Only the selected book columns are
+ * read, authors are only looked up when an author field is selected, and the authors of all
+ * selections of a request are resolved together by one {@link AuthorLoader} dispatch.
+ */
+@Service
+public class BookQueryService {
+    private static final Set<String> BOOK_FIELDS = Set.of("id", "title", "isbn", "authorId", "version", "updatedAt");
+    private static final Set<String> AUTHOR_FIELDS = Set.of("id", "name");
+    private static final String AUTHOR_PREFIX = "author.";
+    // Each selection runs its own query
+    private static final int MAX_SELECTIONS = 10;
+
+    private final BookService bookService;
+    private final AuthorViewService authorViewService;
+    private final Scheduler jpaScheduler;
+
+    public BookQueryService(BookService bookService, AuthorViewService authorViewService, Scheduler jpaScheduler) {
+        this.bookService = bookService;
+        this.authorViewService = authorViewService;
+        this.jpaScheduler = jpaScheduler;
+    }
+
+    /**
+     * Returns false for more than {@value #MAX_SELECTIONS} selections, and for selections without fields,
+     * with unknown or null fields, or with null ids or more than {@value BookService#MAX_PAGE_SIZE} ids.
+     */
+    public boolean isValid(Map<String, BookQuery> queries) {
+        return !queries.isEmpty() && queries.size() <= MAX_SELECTIONS && queries.values().stream().allMatch(query ->
+                query != null
+                        && query.getFields() != null && !query.getFields().isEmpty()
+                        && query.getFields().stream().allMatch(BookQueryService::isKnownField)
+                        && (query.getIds() == null || (query.getIds().size() <= BookService.MAX_PAGE_SIZE
+                                && query.getIds().stream().allMatch(Objects::nonNull))));
+    }
+
+    private static boolean isKnownField(String field) {
+        if (field == null) {
+            return false;
+        }
+        return field.startsWith(AUTHOR_PREFIX)
+                ? AUTHOR_FIELDS.contains(field.substring(AUTHOR_PREFIX.length()))
+                : BOOK_FIELDS.contains(field);
+    }
+
+    /**
+     * Runs every named selection and returns its rows under the same name.
+     */
+    public Mono<Map<String, List<Map<String, Object>>>> query(Map<String, BookQuery> queries) {
+        AuthorLoader authors = new AuthorLoader(authorViewService::getAuthors);
+        return Mono.fromCallable(() -> select(queries))
+                .subscribeOn(jpaScheduler)
+                .flatMap(tuples -> {
+                    tuples.forEach((name, rows) -> {
+                        if (selectsAuthor(queries.get(name))) {
+                            rows.forEach(row -> authors.load(row.get("authorId", Long.class)));
+                        }
+                    });
+                    return authors.dispatch().thenReturn(tuples);
+                })
+                .map(tuples -> {
+                    Map<String, List<Map<String, Object>>> results = new LinkedHashMap<>();
+                    tuples.forEach((name, rows) -> results.put(name, rows.stream()
+                            .map(row -> toResult(queries.get(name).getFields(), row, authors))
+                            .collect(Collectors.toList())));
+                    return results;
+                });
+    }
+
+    private Map<String, List<Tuple>> select(Map<String, BookQuery> queries) {
+        Map<String, List<Tuple>> tuples = new LinkedHashMap<>();
+        queries.forEach((name, query) -> {
+            Set<String> columns = new LinkedHashSet<>();
+            query.getFields().stream().filter(BOOK_FIELDS::contains).forEach(columns::add);
+            if (selectsAuthor(query)) {
+                columns.add("authorId");
+            }
+            tuples.put(name, query.getIds() != null
+                    ? bookService.selectFields(columns, query.getIds())
+                    : bookService.selectFields(columns, query.getAfterId(), query.getSize()));
+        });
+        return tuples;
+    }
+
+    private static boolean selectsAuthor(BookQuery query) {
+        return query.getFields().stream().anyMatch(field -> field.startsWith(AUTHOR_PREFIX));
+    }
+
+    private static Map<String, Object> toResult(List<String> fields, Tuple row, AuthorLoader authors) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, Object> author = null;
+        AuthorDTO found = null;
+        for (String field : fields) {
+            if (!field.startsWith(AUTHOR_PREFIX)) {
+                result.put(field, row.get(field));
+                continue;
+            }
+            if (author == null) {
+                found = authors.get(row.get("authorId", Long.class));
+                author = new LinkedHashMap<>();
+            }
+            if (found != null) {
+                String authorField = field.substring(AUTHOR_PREFIX.length());
+                author.put(authorField, "id".equals(authorField) ? found.getId() : found.getName());
+            }
+        }
+        if (author != null) {
+            result.put("author", found != null ? author : null);
+        }
+        return result;
+    }
+}
@@ -1,55 +1,367 @@
 package com.example.service;
 
+import com.example.common.dto.BulkItemError;
+import com.example.common.dto.BulkResult;
+import com.example.common.dto.ResourceVersion;
+import com.example.common.service.BulkExecutor;
+import com.example.common.service.RowCacheInvalidator;
+import com.example.common.service.WriteOutcome;
+import com.example.dto.BookSummary;
+import com.example.dto.BookWithAuthorDTO;
 import com.example.model.Book;
 import com.example.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookService {
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int AUTHOR_LOOKUP_CONCURRENCY = 4;
+
     private final BookRepository bookRepository;
-    private final AuthorServiceClient authorServiceClient;
+    private final AuthorViewService authorViewService;
+    private final Scheduler jpaScheduler;
+    private final EntityManager entityManager;
+    private final BulkExecutor bulkExecutor;
+    private final TitleSearchIndex titleSearchIndex;
+    private final RowCacheInvalidator rowCacheInvalidator;
+    private final ObjectWriter exportWriter;
+    private final ObjectReader bookReader;
+    private final ObjectReader idReader;
 
-    public BookService(BookRepository bookRepository, AuthorServiceClient authorServiceClient) {
+    public BookService(BookRepository bookRepository, AuthorViewService authorViewService, Scheduler jpaScheduler,
+                       EntityManager entityManager, BulkExecutor bulkExecutor, TitleSearchIndex titleSearchIndex,
+                       RowCacheInvalidator rowCacheInvalidator, ObjectMapper objectMapper) {
         this.bookRepository = bookRepository;
-        this.authorServiceClient = authorServiceClient;
+        this.authorViewService = authorViewService;
+        this.jpaScheduler = jpaScheduler;
+        this.entityManager = entityManager;
+        this.bulkExecutor = bulkExecutor;
+        this.titleSearchIndex = titleSearchIndex;
+        this.rowCacheInvalidator = rowCacheInvalidator;
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.bookReader = objectMapper.readerFor(Book.class);
+        this.idReader = objectMapper.readerFor(Long.class);
+    }
+
+    /**
+     * Returns up to {@code size} books with an id greater than {@code afterId}, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<Book> getBooks(long afterId, int size) {
+        return bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize(size)));
+    }
+
+    /**
+     * Returns up to {@code size} book summaries with an id greater than {@code afterId}, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<BookSummary> getBookSummaries(long afterId, int size) {
+        return bookRepository.findSummaries(afterId, PageRequest.of(0, pageSize(size)));
+    }
+
+    @Transactional(readOnly = true)
+    public Book getBookByIsbn(String isbn) {
+        return bookRepository.findByIsbn(isbn).orElse(null);
+    }
+
+    /**
+     * Returns up to {@code size} books of an author with an id greater than {@code afterId}, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<Book> getBooksByAuthor(Long authorId, long afterId, int size) {
+        return bookRepository.findByAuthorIdAndIdGreaterThanOrderByIdAsc(authorId, afterId, PageRequest.of(0, pageSize(size)));
+    }
+
+    /**
+     * Returns up to {@code size} books whose title starts with {@code prefix}, ordered by title.
+     */
+    @Transactional(readOnly = true)
+    public List<Book> searchByTitlePrefix(String prefix, int size) {
+        return bookRepository.findByTitleStartingWithOrderByTitleAscIdAsc(prefix, PageRequest.of(0, pageSize(size)));
+    }
+
+    /**
+     * Returns up to {@code size} books whose title contains every word of {@code text}, where the last
+     * characters of a word may be missing.
+     */
+    @Transactional(readOnly = true)
+    public List<Book> searchByTitleWords(String text, int size) {
+        List<String> words = Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        if (!titleSearchIndex.isAvailable()) {
+            return bookRepository.findByTitleContainingIgnoreCaseOrderByIdAsc(String.join(" ", words),
+                    PageRequest.of(0, pageSize(size)));
+        }
+        // Boolean mode: every word is required and matched as a prefix
+        String query = words.stream().map(word -> "+" + word + "*").collect(Collectors.joining(" "));
+        return bookRepository.searchTitle(query, pageSize(size));
     }
 
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    /**
+     * Writes every book as one JSON line. Rows are streamed from the database with a fetch size and
+     * detached once written, so memory use does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream out) throws IOException {
+        try (Stream<Book> books = bookRepository.streamAll();
+             JsonGenerator generator = exportWriter.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                exportWriter.writeValue(generator, book);
+                generator.writeRaw('\n');
+                entityManager.detach(book);
+            }
+        }
     }
 
+    @Transactional(readOnly = true)
     public Book getBookById(Long id) {
         return bookRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Reads a book right after writing it. Read-write, so it comes from the primary and not from a replica
+     * that may not have the write yet.
+     */
+    @Transactional
+    public Book getWrittenBook(Long id) {
+        return bookRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Returns only the given columns of the books with the given ids, ordered by id.
+     * Each tuple element is aliased with its attribute name.
+     */
+    @Transactional(readOnly = true)
+    public List<Tuple> selectFields(Collection<String> attributes, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return selectFields(attributes, (builder, book) -> book.get("id").in(ids), ids.size());
+    }
+
+    /**
+     * Returns only the given columns of up to {@code size} books with an id greater than {@code afterId}.
+     */
+    @Transactional(readOnly = true)
+    public List<Tuple> selectFields(Collection<String> attributes, long afterId, int size) {
+        return selectFields(attributes, (builder, book) -> builder.greaterThan(book.get("id"), afterId), pageSize(size));
+    }
+
+    private List<Tuple> selectFields(Collection<String> attributes,
+                                     BiFunction<CriteriaBuilder, Root<Book>, Predicate> where,
+                                     int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Book> book = query.from(Book.class);
+        query.multiselect(attributes.stream()
+                        .<Selection<?>>map(attribute -> book.get(attribute).alias(attribute))
+                        .collect(Collectors.toList()))
+                .where(where.apply(builder, book))
+                .orderBy(builder.asc(book.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Returns the version and last modification time of a book, or null when it does not exist.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getBookVersion(Long id) {
+        return bookRepository.findVersionById(id).orElse(null);
+    }
+
     public Book createBook(Book book) {
         return bookRepository.save(book);
     }
 
-    public Book updateBook(Long id, Book bookDetails) {
-        Book book = bookRepository.findById(id).orElse(null);
-        if (book != null) {
-            book.setTitle(bookDetails.getTitle());
-            book.setIsbn(bookDetails.getIsbn());
-            book.setAuthorId(bookDetails.getAuthorId());
-            return bookRepository.save(book);
+    /**
+     * Updates a book with a single UPDATE statement. When {@code expectedVersion} is given, the update
+     * only applies if the stored version still matches it.
+     */
+    @Transactional
+    public WriteOutcome updateBook(Long id, Book bookDetails, Long expectedVersion) {
+        int updated = bookRepository.updateById(id, expectedVersion, Instant.now(),
+                bookDetails.getTitle(), bookDetails.getIsbn(), bookDetails.getAuthorId());
+        if (updated > 0) {
+            rowCacheInvalidator.rowWritten(Book.class, id);
         }
-        return null;
+        return outcome(updated, id);
     }
 
-    public void deleteBook(Long id) {
-        bookRepository.deleteById(id);
+    /**
+     * Deletes a book with a single DELETE statement, optionally guarded by {@code expectedVersion}.
+     */
+    @Transactional
+    public WriteOutcome deleteBook(Long id, Long expectedVersion) {
+        int deleted = bookRepository.deleteById(id, expectedVersion);
+        if (deleted > 0) {
+            rowCacheInvalidator.rowWritten(Book.class, id);
+        }
+        return outcome(deleted, id);
     }
 
-    public String getBookWithAuthor(Long bookId) {
-        Book book = getBookById(bookId);
-        if (book != null) {
-            return authorServiceClient.getAuthor(book.getAuthorId())
-                    .map(author -> "Book: " + book.getTitle() + ", Author: " + author.getName())
-                    .block();
+    // Only a write that matched no row costs a second query, to tell a missing book from a stale version
+    private WriteOutcome outcome(int rows, Long id) {
+        if (rows > 0) {
+            return WriteOutcome.APPLIED;
         }
-        return "Book not found";
+        return bookRepository.existsById(id) ? WriteOutcome.VERSION_CONFLICT : WriteOutcome.NOT_FOUND;
+    }
+
+    /**
+     * Creates the books of a JSON array or NDJSON stream. Client supplied ids are ignored.
+     */
+    public BulkResult createBooks(InputStream body) throws IOException {
+        return bulkExecutor.<Book>execute(bookReader.readValues(body), (chunk, firstIndex) -> {
+            chunk.forEach(book -> book.setId(null));
+            bookRepository.saveAll(chunk);
+            return List.of();
+        });
+    }
+
+    /**
+     * Updates the books of a JSON array or NDJSON stream, matched by id. Unknown ids are reported.
+     */
+    public BulkResult updateBooks(InputStream body) throws IOException {
+        return bulkExecutor.<Book>execute(bookReader.readValues(body), (chunk, firstIndex) -> {
+            Map<Long, Book> existing = bookRepository.findAllById(chunk.stream()
+                            .map(Book::getId)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            List<BulkItemError> errors = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Book details = chunk.get(i);
+                Book book = details.getId() != null ? existing.get(details.getId()) : null;
+                if (book == null) {
+                    errors.add(new BulkItemError(firstIndex + i, details.getId(), "Book not found"));
+                    continue;
+                }
+                book.setTitle(details.getTitle());
+                book.setIsbn(details.getIsbn());
+                book.setAuthorId(details.getAuthorId());
+            }
+            return errors;
+        });
+    }
+
+    /**
+     * Deletes the books whose ids are given as a JSON array or NDJSON stream. Unknown ids are reported.
+     */
+    public BulkResult deleteBooks(InputStream body) throws IOException {
+        return bulkExecutor.<Long>execute(idReader.readValues(body), (chunk, firstIndex) -> {
+            Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(chunk));
+            bookRepository.deleteAllByIdInBatch(existing);
+            List<BulkItemError> errors = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!existing.contains(chunk.get(i))) {
+                    errors.add(new BulkItemError(firstIndex + i, chunk.get(i), "Book not found"));
+                }
+            }
+            return errors;
+        });
+    }
+
+    /**
+     * Non-blocking: the lookups run on the bounded JPA scheduler. The author comes from the local author
+     * view; only an author missing from it is fetched from author-service on the WebClient event loop.
+     */
+    public Mono<String> getBookWithAuthor(Long bookId) {
+        return Mono.fromCallable(() -> bookRepository.findById(bookId))
+                .subscribeOn(jpaScheduler)
+                .flatMap(book -> book
+                        .map(found -> authorViewService.getAuthor(found.getAuthorId())
+                                .map(author -> "Book: " + found.getTitle() + ", Author: " + author.getName())
+                                .defaultIfEmpty("Book: " + found.getTitle() + ", Author: unknown"))
+                        .orElseGet(() -> Mono.just("Book not found")));
+    }
+
+    public Page<BookWithAuthorDTO> getBooksWithAuthors(int page, int size) {
+        Page<Book> books = bookRepository.findAll(
+                PageRequest.of(Math.max(page, 0), pageSize(size), Sort.by("id")));
+        List<BookWithAuthorDTO> content = withAuthors(books.getContent()).block();
+        return new PageImpl<>(content, books.getPageable(), books.getTotalElements());
+    }
+
+    /**
+     * Streams all books with their authors. Books are read in keyset batches of {@value #MAX_PAGE_SIZE},
+     * and at most {@value #AUTHOR_LOOKUP_CONCURRENCY} batched author lookups are in flight at once.
+     */
+    public Flux<BookWithAuthorDTO> streamBooksWithAuthors() {
+        // Each batch is the next keyset page, so only the batches in flight are held in memory
+        return nextBatch(0L)
+                .expand(batch -> batch.size() < MAX_PAGE_SIZE
+                        ? Mono.empty()
+                        : nextBatch(batch.get(batch.size() - 1).getId()))
+                .flatMapSequential(batch -> withAuthors(batch).flatMapMany(Flux::fromIterable), AUTHOR_LOOKUP_CONCURRENCY);
+    }
+
+    private Mono<List<Book>> nextBatch(long afterId) {
+        return Mono.fromCallable(() -> getBooks(afterId, MAX_PAGE_SIZE))
+                .subscribeOn(jpaScheduler)
+                .filter(batch -> !batch.isEmpty());
+    }
+
+    // Resolves the authors of all given books with one lookup in the local view instead of one per book
+    private Mono<List<BookWithAuthorDTO>> withAuthors(List<Book> books) {
+        Set<Long> authorIds = books.stream()
+                .map(Book::getAuthorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return authorViewService.getAuthors(authorIds).map(byId -> books.stream()
+                .map(book -> new BookWithAuthorDTO(book, book.getAuthorId() != null ? byId.get(book.getAuthorId()) : null))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Clamps a requested page size to between 1 and {@value #MAX_PAGE_SIZE}.
+     */
+    public static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
     }
 }
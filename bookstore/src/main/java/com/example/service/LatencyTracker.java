@@ -0,0 +1,52 @@
+package com.example.service;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Keeps the most recent call latencies in a ring buffer and answers percentile queries over them.
+ * Queries read a sorted copy of the window that is refreshed once every {@value #REFRESH_EVERY} recorded calls,
+ * so the window is not sorted on every call.
+ */
+public class LatencyTracker {
+    private static final int MIN_SAMPLES = 20;
+    private static final int REFRESH_EVERY = 16;
+
+    private final long[] samples;
+    private int next;
+    private int count;
+    private int recordedSinceSort;
+    private long[] sorted = new long[0];
+
+    public LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        recordedSinceSort++;
+    }
+
+    /**
+     * Returns the given percentile (0-1) in nanoseconds, or empty while too few calls were recorded.
+     */
+    public Optional<Long> percentile(double percentile) {
+        long[] window = sorted();
+        if (window.length < MIN_SAMPLES) {
+            return Optional.empty();
+        }
+        int index = (int) Math.ceil(percentile * window.length) - 1;
+        return Optional.of(window[Math.max(0, Math.min(index, window.length - 1))]);
+    }
+
+    private synchronized long[] sorted() {
+        if (recordedSinceSort >= REFRESH_EVERY || (recordedSinceSort > 0 && sorted.length < MIN_SAMPLES)) {
+            sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            recordedSinceSort = 0;
+        }
+        return sorted;
+    }
+}
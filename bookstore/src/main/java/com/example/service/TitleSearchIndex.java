@@ -0,0 +1,54 @@
+package com.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks for the MySQL FULLTEXT index on book titles that word search relies on. The index is created
+ * by the V2 Flyway migration, since Hibernate's schema update cannot declare it; this only reads the
+ * catalog. MySQL keeps the index in sync with every write. Without it, and on other databases, word
+ * search falls back to a substring scan.
+ */
+@Component
+public class TitleSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TitleSearchIndex.class);
+    private static final String INDEX_NAME = "ft_books_title";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean available;
+
+    public TitleSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void detect() {
+        try {
+            String database = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"MySQL".equals(database)) {
+                return;
+            }
+            Integer existing = jdbcTemplate.queryForObject(
+                    "select count(*) from information_schema.statistics " +
+                            "where table_schema = database() and table_name = 'books' and index_name = ?",
+                    Integer.class, INDEX_NAME);
+            available = existing != null && existing > 0;
+            if (!available) {
+                logger.warn("Full-text index {} is missing, word search falls back to a substring scan", INDEX_NAME);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Error looking up full-text index " + INDEX_NAME + ", word search falls back to a substring scan", e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,11 @@
+-- The books table as Hibernate creates it, so that later migrations can refer to it on an empty database.
+-- Hibernate's schema update adds the remaining constraints and indexes declared on the entity.
+create table if not exists books (
+    id bigint not null,
+    author_id bigint,
+    isbn varchar(255),
+    title varchar(255),
+    updated_at datetime(6),
+    version bigint not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,8 @@
+-- Word search on titles. MySQL keeps the index in sync with every write.
+-- Earlier versions created the index at startup, so it may exist already.
+set @exists = (select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'books' and index_name = 'ft_books_title');
+set @ddl = if(@exists = 0, 'create fulltext index ft_books_title on books (title)', 'do 0');
+prepare statement from @ddl;
+execute statement;
+deallocate prepare statement;
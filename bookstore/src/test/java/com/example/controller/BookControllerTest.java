@@ -0,0 +1,94 @@
+package com.example.controller;
+
+import com.example.model.Book;
+import com.example.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:books;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+        "spring.flyway.enabled=false",
+        "author-view.enabled=false"
+})
+@AutoConfigureMockMvc
+class BookControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BookService bookService;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        Book created = new Book();
+        created.setTitle("Dune");
+        created.setIsbn("isbn-" + System.nanoTime());
+        created.setAuthorId(1L);
+        book = bookService.createBook(created);
+    }
+
+    @Test
+    void putAnswersWithTheUpdatedBookAndItsEntityTag() throws Exception {
+        mockMvc.perform(update(book.getId(), "Dune Messiah"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (book.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("$.title").value("Dune Messiah"))
+                .andExpect(jsonPath("$.version").value(book.getVersion() + 1));
+    }
+
+    @Test
+    void putWithIfMatchAppliesOnlyToTheVersionSeen() throws Exception {
+        String etag = "W/\"" + book.getVersion() + "\"";
+        String next = mockMvc.perform(update(book.getId(), "Dune Messiah").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Dune Messiah"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(update(book.getId(), "Children of Dune").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(""));
+        mockMvc.perform(update(book.getId(), "Children of Dune").header(HttpHeaders.IF_MATCH, next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Children of Dune"));
+    }
+
+    @Test
+    void deleteWithIfMatchAppliesOnlyToTheVersionSeen() throws Exception {
+        mockMvc.perform(delete("/api/books/{id}", book.getId()).header(HttpHeaders.IF_MATCH, "W/\"" + (book.getVersion() + 1) + "\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/books/{id}", book.getId()).header(HttpHeaders.IF_MATCH, "W/\"" + book.getVersion() + "\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/books/{id}", book.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void putToAMissingBookIsNotFound() throws Exception {
+        mockMvc.perform(update(-1L, "Dune Messiah"))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder update(Long id, String title) {
+        return put("/api/books/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"isbn\":\"" + book.getIsbn() + "\",\"authorId\":1}");
+    }
+}
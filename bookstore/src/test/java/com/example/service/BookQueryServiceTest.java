@@ -0,0 +1,87 @@
+package com.example.service;
+
+import com.example.dto.AuthorDTO;
+import com.example.dto.BookQuery;
+import com.example.model.Book;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:book-query;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+        "spring.flyway.enabled=false",
+        "author-view.enabled=false"
+})
+class BookQueryServiceTest {
+    @Autowired
+    private BookQueryService bookQueryService;
+    @Autowired
+    private BookService bookService;
+    @MockBean
+    private AuthorServiceClient authorServiceClient;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolvesTheAuthorsOfAllSelectionsInOneCall() {
+        // The author view is empty, so every author comes from author-service
+        when(authorServiceClient.getAuthors(any())).thenAnswer(invocation -> Mono.just(
+                ((Collection<Long>) invocation.getArgument(0)).stream().map(id -> {
+                    AuthorDTO author = new AuthorDTO();
+                    author.setId(id);
+                    author.setName("author " + id);
+                    return author;
+                }).collect(Collectors.toList())));
+        Book first = book(101L);
+        Book second = book(102L);
+        Book third = book(101L);
+
+        Map<String, BookQuery> queries = new LinkedHashMap<>();
+        queries.put("named", query(List.of(first.getId(), second.getId()), "title", "author.name"));
+        queries.put("ids", query(List.of(second.getId(), third.getId()), "isbn", "author.id"));
+        queries.put("plain", query(List.of(first.getId()), "title"));
+        Map<String, List<Map<String, Object>>> results = bookQueryService.query(queries).block();
+
+        ArgumentCaptor<Collection<Long>> authorIds = ArgumentCaptor.forClass(Collection.class);
+        verify(authorServiceClient, times(1)).getAuthors(authorIds.capture());
+        assertThat(authorIds.getValue()).containsExactlyInAnyOrder(101L, 102L);
+
+        assertThat(results.get("named")).extracting(row -> row.get("author"))
+                .containsExactly(Map.of("name", "author 101"), Map.of("name", "author 102"));
+        assertThat(results.get("ids")).extracting(row -> row.get("author"))
+                .containsExactly(Map.of("id", 102L), Map.of("id", 101L));
+        assertThat(results.get("plain").get(0)).containsOnlyKeys("title");
+    }
+
+    private Book book(Long authorId) {
+        Book book = new Book();
+        book.setTitle("Book by " + authorId);
+        book.setIsbn("isbn-" + System.nanoTime());
+        book.setAuthorId(authorId);
+        return bookService.createBook(book);
+    }
+
+    private static BookQuery query(List<Long> ids, String... fields) {
+        BookQuery query = new BookQuery();
+        query.setIds(ids);
+        query.setFields(List.of(fields));
+        return query;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.common.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows the measured latency, after the gradient algorithm.
+ * <p>
+ * A long-term average of the latency serves as the unloaded baseline. While the recent latency stays
+ * within {@code tolerance} times the baseline the limit grows by about its square root per sample; once
+ * queueing makes requests slower the limit shrinks in proportion. A failed request cuts the limit by the
+ * backoff ratio (multiplicative decrease). The limit is only raised while it is actually in use, so an
+ * idle service does not drift to the maximum.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+
+    // Guarded by this
+    private double longRtt;
+    private double shortRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * Admits a request if fewer than {@code share} of the limit are in flight.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request and adjusts the limit to its latency.
+     */
+    public void release(long rttNanos, boolean failed) {
+        int current = inflight.getAndDecrement();
+        update(rttNanos, current, failed);
+    }
+
+    private synchronized void update(long rttNanos, int inflightAtRelease, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        if (longRtt == 0) {
+            longRtt = rttNanos;
+            shortRtt = rttNanos;
+        } else {
+            longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+            shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+        }
+        // After a lasting drop in latency the baseline follows quickly, so the limit does not stay inflated
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (inflightAtRelease < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.common.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits at most as many callers as the pool has connections; the rest wait in arrival order on a fair
+ * semaphore, for up to the pool's connection timeout. Without a thread pool capping request concurrency,
+ * thousands of virtual threads would otherwise all contend on the pool's handoff queue at once.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+    private final String poolName;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    public BoundedDataSource(HikariDataSource pool) {
+        super(pool);
+        this.poolName = pool.getPoolName();
+        this.permits = new Semaphore(pool.getMaximumPoolSize(), true);
+        this.timeoutMillis = pool.getConnectionTimeout();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(poolName + " - Connection is not available, request timed out after "
+                        + timeoutMillis + "ms waiting for a permit.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(poolName + " - Interrupted while waiting for a connection.", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.common.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits requests up to an {@link AdaptiveConcurrencyLimit} and rejects the rest at once with 503 and
+ * Retry-After, instead of letting them queue for threads and connections. Requests completed asynchronously
+ * hold their permit until the async request completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimit limit;
+    private final List<String> bulkEndpoints;
+    private final List<String> criticalEndpoints;
+    private final String retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.limit = new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getTolerance(), properties.getBackoffRatio());
+        this.bulkEndpoints = properties.endpointsFor(RequestPriority.BULK);
+        this.criticalEndpoints = properties.endpointsFor(RequestPriority.CRITICAL);
+        this.retryAfterSeconds = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+        this.meterRegistry = meterRegistry;
+        if (meterRegistry != null) {
+            Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit).register(meterRegistry);
+            Gauge.builder("http.server.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInflight).register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestPriority priority = priority(request);
+        if (!limit.tryAcquire(priority.getShare())) {
+            if (meterRegistry != null) {
+                meterRegistry.counter("http.server.requests.shed", "priority", priority.name()).increment();
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(start, released, response));
+            } else if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private RequestPriority priority(HttpServletRequest request) {
+        if (matches(bulkEndpoints, request)) {
+            return RequestPriority.BULK;
+        }
+        if (matches(criticalEndpoints, request)) {
+            return RequestPriority.CRITICAL;
+        }
+        return RequestPriority.NORMAL;
+    }
+
+    private boolean matches(List<String> endpoints, HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String endpoint : endpoints) {
+            int space = endpoint.indexOf(' ');
+            String method = space > 0 ? endpoint.substring(0, space) : null;
+            String pattern = endpoint.substring(space + 1).trim();
+            if ((method == null || method.equalsIgnoreCase(request.getMethod())) && pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class ReleasingListener implements AsyncListener {
+        private final long start;
+        private final AtomicBoolean released;
+        // The event only carries a response when one was passed to startAsync
+        private final HttpServletResponse response;
+
+        ReleasingListener(long start, AtomicBoolean released, HttpServletResponse response) {
+            this.start = start;
+            this.released = released;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+}
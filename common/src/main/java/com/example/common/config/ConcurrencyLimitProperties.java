@@ -0,0 +1,98 @@
+package com.example.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The adaptive concurrency limit, bound from the {@code concurrency-limit.*} properties. Endpoints are
+ * listed per priority as {@code METHOD pattern} or just {@code pattern}; bulk patterns are checked first,
+ * then critical ones, and everything else is normal.
+ * <p>
+ * The limit is off unless enabled. On Tomcat's worker pool the pool size already caps the requests in flight,
+ * so {@code max-limit} only takes effect below it. On virtual threads nothing else caps them, and
+ * {@code max-limit} becomes the effective ceiling for the whole service.
+ */
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = false;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    private double tolerance = 1.5;
+    private double backoffRatio = 0.9;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Map<RequestPriority, List<String>> endpoints = new EnumMap<>(RequestPriority.class);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Map<RequestPriority, List<String>> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<RequestPriority, List<String>> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public List<String> endpointsFor(RequestPriority priority) {
+        return endpoints.getOrDefault(priority, new ArrayList<>());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.common.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Writes and read-write transactions, sized by spring.datasource.hikari.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public Replicas replicas(HikariDataSource primaryDataSource, ReplicaDataSourceProperties properties,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        return new Replicas(primaryDataSource, properties, meterRegistry.getIfAvailable());
+    }
+
+    // Without replicas every connection comes from the primary.
+    // When requests run on virtual threads, each pool is fronted by a BoundedDataSource that queues callers beyond
+    // its size; on the worker pool, whose size already caps the callers, the pools are used as they are.
+    // Statements are counted per request on top of the routing.
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, Replicas replicas,
+                                 RequestThreads requestThreads, ObjectProvider<MeterRegistry> meterRegistry) {
+        ReadWriteRoutingDataSource routing;
+        if (requestThreads.isVirtual()) {
+            Map<String, DataSource> replicaTargets = new LinkedHashMap<>();
+            replicas.getDataSources().forEach((key, pool) -> replicaTargets.put(key, new BoundedDataSource(pool)));
+            routing = new ReadWriteRoutingDataSource(new BoundedDataSource(primaryDataSource), replicaTargets,
+                    meterRegistry.getIfAvailable());
+        } else {
+            routing = new ReadWriteRoutingDataSource(primaryDataSource, replicas, meterRegistry.getIfAvailable());
+        }
+        routing.afterPropertiesSet();
+        return new StatementCountingDataSource(new LazyConnectionDataSourceProxy(routing));
+    }
+
+    // Transactions are routed as they begin, by the dialect every JPA transaction goes through
+    @Bean
+    public static BeanPostProcessor replicaRoutingJpaDialect(ObjectProvider<Replicas> replicas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean) {
+                    ((AbstractEntityManagerFactoryBean) bean).setJpaDialect(new ReplicaRoutingJpaDialect(replicas.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.common.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets a log message through at most once per interval, for failures that repeat on every request or every
+ * beat while a dependency is down. The messages held back in between are counted, so the next one let
+ * through can report them.
+ */
+public class LogThrottle {
+    private final long intervalNanos;
+    private final AtomicLong nextAt;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogThrottle(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+        this.nextAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Returns how many messages were held back since the last one let through, or -1 if this one is held back.
+     */
+    public long acquire() {
+        long now = System.nanoTime();
+        long next = nextAt.get();
+        if (now - next >= 0 && nextAt.compareAndSet(next, now + intervalNanos)) {
+            return suppressed.getAndSet(0);
+        }
+        suppressed.incrementAndGet();
+        return -1;
+    }
+}
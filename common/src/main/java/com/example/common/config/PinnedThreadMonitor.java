@@ -0,0 +1,68 @@
+package com.example.common.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, e.g. while blocking inside a
+ * synchronized block, for longer than the threshold. Each occurrence is logged with the top of its stack
+ * and recorded in the {@code threads.virtual.pinned} timer.
+ */
+public class PinnedThreadMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 5;
+
+    private final RecordingStream stream;
+    private final LogThrottle pinnedLog = new LogThrottle(Duration.ofSeconds(10));
+
+    public PinnedThreadMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        if (!VirtualThreads.isSupported()) {
+            this.stream = null;
+            return;
+        }
+        Timer pinned = meterRegistry != null ? Timer.builder("threads.virtual.pinned").register(meterRegistry) : null;
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            if (pinned != null) {
+                pinned.record(event.getDuration());
+            }
+            long suppressed = pinnedLog.acquire();
+            if (suppressed >= 0) {
+                logger.warn("Virtual thread pinned for {}ms at {} ({} more since the last report)",
+                        event.getDuration().toMillis(), topFrames(event), suppressed);
+            }
+        });
+        stream.startAsync();
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(PinnedThreadMonitor::describe)
+                .collect(Collectors.joining(" <- "));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.common.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a replica within the allowed lag and everything else to the primary.
+ * <p>
+ * The route of each transaction is fixed when it begins, by {@link ReplicaRoutingJpaDialect}, which also keeps
+ * replica reads out of the caches. Connections taken outside a transaction go to the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<String> currentRoute = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Replicas replicas, MeterRegistry meterRegistry) {
+        this(primary, replicas.getDataSources(), meterRegistry);
+    }
+
+    /**
+     * Routes to the given data sources, keyed like the pools of {@link Replicas}, instead of to those pools.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, ? extends DataSource> replicaTargets,
+                                      MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Map<Object, Object> targets = new HashMap<>(replicaTargets);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Routes the connections this thread takes from now on to the given replica, or to the primary if null.
+     * Returns the route that applied before, to be restored when the transaction completes.
+     */
+    static String route(String replica) {
+        String previous = currentRoute.get();
+        if (replica == null) {
+            currentRoute.remove();
+        } else {
+            currentRoute.set(replica);
+        }
+        return previous;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String route = currentRoute.get();
+        if (route == null) {
+            route = PRIMARY;
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter("datasource.route", "route", route).increment();
+        }
+        return route;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.common.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, bound from the {@code datasource.*} properties. Every replica gets its own Hikari pool,
+ * configured like {@code spring.datasource.hikari.*} plus {@code jdbc-url}, {@code username} and {@code password}.
+ */
+@ConfigurationProperties(prefix = "datasource")
+public class ReplicaDataSourceProperties {
+    private List<HikariConfig> replicas = new ArrayList<>();
+    private Duration maxLag = Duration.ofSeconds(5);
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+    public List<HikariConfig> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<HikariConfig> replicas) {
+        this.replicas = replicas;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+}
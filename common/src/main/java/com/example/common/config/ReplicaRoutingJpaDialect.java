@@ -0,0 +1,75 @@
+package com.example.common.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+/**
+ * Fixes the route of every JPA transaction as it begins: read-only transactions read from a replica within
+ * the allowed lag when there is one, everything else from the primary.
+ * <p>
+ * A transaction on a replica still reads the second-level and query caches, but does not put what it reads
+ * into them. A replica may return a row that a write on the primary has just evicted; cached, that row would
+ * be served long after the replica caught up. Only reads from the primary fill the caches.
+ */
+public class ReplicaRoutingJpaDialect extends HibernateJpaDialect {
+    private final Replicas replicas;
+
+    public ReplicaRoutingJpaDialect(Replicas replicas) {
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        String replica = definition.isReadOnly() ? replicas.pick() : null;
+        RoutedTransaction routed = new RoutedTransaction(entityManager, ReadWriteRoutingDataSource.route(replica),
+                entityManager.getProperties().get(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE));
+        if (replica != null) {
+            entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        }
+        try {
+            routed.transactionData = super.beginTransaction(entityManager, definition);
+            return routed;
+        } catch (SQLException | RuntimeException e) {
+            routed.restore();
+            throw e;
+        }
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        RoutedTransaction routed = (RoutedTransaction) transactionData;
+        try {
+            super.cleanupTransaction(routed.transactionData);
+        } finally {
+            routed.restore();
+        }
+    }
+
+    // The route and store mode as they were before the transaction, e.g. within an open-session-in-view request
+    private static class RoutedTransaction {
+        private final EntityManager entityManager;
+        private final String previousRoute;
+        private final Object previousStoreMode;
+        private Object transactionData;
+
+        RoutedTransaction(EntityManager entityManager, String previousRoute, Object previousStoreMode) {
+            this.entityManager = entityManager;
+            this.previousRoute = previousRoute;
+            this.previousStoreMode = previousStoreMode;
+        }
+
+        void restore() {
+            ReadWriteRoutingDataSource.route(previousRoute);
+            if (entityManager.isOpen()) {
+                entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE,
+                        previousStoreMode != null ? previousStoreMode : CacheStoreMode.USE);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.common.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The replica pools and their replication lag.
+ * <p>
+ * Lag is measured with a heartbeat: the primary's row in {@code replication_heartbeat} is stamped with the
+ * current time at every interval, and the age of the stamp a replica returns is its lag. A replica that
+ * lags more than the allowed maximum, or cannot be queried, is skipped until it catches up. The table and
+ * its row are created before the first beat, so that each beat is a single update.
+ */
+public class Replicas implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(Replicas.class);
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    private final DataSource primary;
+    private final Map<String, HikariDataSource> dataSources = new LinkedHashMap<>();
+    private final List<String> keys;
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService heartbeat;
+    private boolean heartbeatTableReady;
+    private final LogThrottle heartbeatErrors = new LogThrottle(Duration.ofMinutes(1));
+
+    public Replicas(DataSource primary, ReplicaDataSourceProperties properties, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        List<HikariConfig> configs = properties.getReplicas();
+        for (int i = 0; i < configs.size(); i++) {
+            HikariConfig config = configs.get(i);
+            String key = "replica-" + i;
+            if (config.getPoolName() == null) {
+                config.setPoolName(key);
+            }
+            config.setReadOnly(true);
+            // An unreachable replica must not prevent startup; it stays out of rotation instead
+            config.setInitializationFailTimeout(-1);
+            if (meterRegistry != null) {
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                Gauge.builder("datasource.replica.lag", lagMillis, lags -> lagSeconds(lags.get(key)))
+                        .tag("replica", key)
+                        .baseUnit("seconds")
+                        .register(meterRegistry);
+            }
+            dataSources.put(key, new HikariDataSource(config));
+            lagMillis.put(key, UNKNOWN_LAG);
+        }
+        this.keys = List.copyOf(dataSources.keySet());
+
+        if (keys.isEmpty()) {
+            this.heartbeat = null;
+        } else {
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getHeartbeatInterval().toMillis();
+            heartbeat.scheduleWithFixedDelay(this::beat, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public Map<String, HikariDataSource> getDataSources() {
+        return dataSources;
+    }
+
+    /**
+     * Picks the next replica within the allowed lag, round-robin, or returns null if there is none.
+     */
+    public String pick() {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(Math.floorMod(start + i, keys.size()));
+            if (lagMillis.get(key) <= maxLagMillis) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private void beat() {
+        if (!heartbeatTableReady) {
+            heartbeatTableReady = createHeartbeatTable();
+        }
+        try (Connection connection = primary.getConnection();
+             PreparedStatement statement = connection.prepareStatement("update replication_heartbeat set beat_at = ? where id = 1")) {
+            statement.setLong(1, System.currentTimeMillis());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            logHeartbeatError("Error writing replication heartbeat", e);
+        }
+
+        dataSources.forEach((key, dataSource) -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("select beat_at from replication_heartbeat where id = 1");
+                 ResultSet resultSet = statement.executeQuery()) {
+                lagMillis.put(key, resultSet.next() ? Math.max(0, System.currentTimeMillis() - resultSet.getLong(1)) : UNKNOWN_LAG);
+            } catch (SQLException e) {
+                // Logged when the replica drops out of rotation, not again at every beat until it is back
+                Long previous = lagMillis.put(key, UNKNOWN_LAG);
+                if (previous != null && previous != UNKNOWN_LAG) {
+                    logger.warn("Error reading replication heartbeat from {}, leaving it out of rotation: {}", key, e.getMessage());
+                }
+                logger.debug("Error reading replication heartbeat from " + key, e);
+            }
+        });
+    }
+
+    // Once per start, or until the primary can be reached; the replicas receive the table through replication
+    private boolean createHeartbeatTable() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists replication_heartbeat (id int not null primary key, beat_at bigint not null)");
+            statement.executeUpdate("insert into replication_heartbeat (id, beat_at) select 1, 0 from (select 1) seed"
+                    + " where not exists (select 1 from replication_heartbeat where id = 1)");
+            return true;
+        } catch (SQLException e) {
+            logHeartbeatError("Error creating replication heartbeat table", e);
+            return false;
+        }
+    }
+
+    private void logHeartbeatError(String message, SQLException e) {
+        long suppressed = heartbeatErrors.acquire();
+        if (suppressed >= 0) {
+            logger.warn("{}: {} ({} more since the last report)", message, e.getMessage(), suppressed);
+        }
+        logger.debug(message, e);
+    }
+
+    private static double lagSeconds(Long millis) {
+        return millis == null || millis == UNKNOWN_LAG ? Double.NaN : millis / 1000.0;
+    }
+
+    @Override
+    public void close() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        dataSources.values().forEach(HikariDataSource::close);
+    }
+}
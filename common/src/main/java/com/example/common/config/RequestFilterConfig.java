@@ -0,0 +1,40 @@
+package com.example.common.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * The filters every service puts in front of its {@code /api} endpoints: the concurrency limit first, then the
+ * per-request statistics.
+ */
+@Configuration
+public class RequestFilterConfig {
+
+    // Runs ahead of every other filter, so that a shed request costs next to nothing
+    @Bean
+    @ConditionalOnProperty(prefix = "concurrency-limit", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(properties, meterRegistry.getIfAvailable()));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestStatsFilter> requestStatsFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                         @Value("${request-stats.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        FilterRegistrationBean<RequestStatsFilter> registration = new FilterRegistrationBean<>(
+                new RequestStatsFilter(meterRegistry.getIfAvailable(), nPlusOneThreshold));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.common.config;
+
+/**
+ * How readily requests to an endpoint are shed. Each priority may only fill its share of the concurrency
+ * limit, so under overload bulk requests are rejected first and critical ones last.
+ */
+public enum RequestPriority {
+    CRITICAL(1.0),
+    NORMAL(0.9),
+    BULK(0.7);
+
+    private final double share;
+
+    RequestPriority(double share) {
+        this.share = share;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.common.config;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statements, rows and remote calls made on behalf of one HTTP request.
+ * <p>
+ * {@link RequestStatsFilter} binds an instance to the request thread; tasks handed to other threads
+ * carry it along when wrapped with {@link #propagate}. Counters are safe to update from several threads.
+ */
+public class RequestStats {
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder statementNanos = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder remoteCalls = new LongAdder();
+    private final LongAdder remoteNanos = new LongAdder();
+    private final Map<String, LongAdder> statementsBySql = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> remoteCallsByTarget = new ConcurrentHashMap<>();
+
+    public static RequestStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the given stats to the current thread and returns the previously bound ones.
+     */
+    public static RequestStats bind(RequestStats stats) {
+        RequestStats previous = CURRENT.get();
+        if (stats != null) {
+            CURRENT.set(stats);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Wraps a task so that it runs with the stats of the thread that created it.
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestStats stats = current();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            RequestStats previous = bind(stats);
+            try {
+                task.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    /**
+     * Records an executed statement. Only plain selects are tracked as repetitions of their SQL; writes,
+     * batches and id generator calls, e.g. sequence increments during bulk inserts, repeat by design.
+     */
+    public void statement(String sql, long nanos, boolean batch) {
+        statements.increment();
+        statementNanos.add(nanos);
+        if (!batch && isPlainSelect(sql)) {
+            statementsBySql.computeIfAbsent(sql, key -> new LongAdder()).increment();
+        }
+    }
+
+    private static boolean isPlainSelect(String sql) {
+        return sql != null && sql.regionMatches(true, 0, "select", 0, 6) && !sql.toLowerCase(Locale.ROOT).contains(" for update");
+    }
+
+    public void row() {
+        rows.increment();
+    }
+
+    public void remoteCall(String target, long nanos) {
+        remoteCalls.increment();
+        remoteNanos.add(nanos);
+        remoteCallsByTarget.computeIfAbsent(target, key -> new LongAdder()).increment();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getRemoteCalls() {
+        return remoteCalls.sum();
+    }
+
+    /**
+     * Returns the statements executed at least {@code threshold} times, with their count.
+     */
+    public Map<String, Long> repeatedStatements(int threshold) {
+        return repeated(statementsBySql, threshold);
+    }
+
+    /**
+     * Returns the remote endpoints called at least {@code threshold} times, with their count.
+     */
+    public Map<String, Long> repeatedRemoteCalls(int threshold) {
+        return repeated(remoteCallsByTarget, threshold);
+    }
+
+    private static Map<String, Long> repeated(Map<String, LongAdder> counts, int threshold) {
+        Map<String, Long> repeated = new TreeMap<>();
+        counts.forEach((key, count) -> {
+            if (count.sum() >= threshold) {
+                repeated.put(key, count.sum());
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * Formats the time spent so far as a {@code Server-Timing} header value.
+     */
+    public String serverTiming() {
+        return String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d statements, %d rows\", remote;dur=%.1f;desc=\"%d calls\", total;dur=%.1f",
+                millis(statementNanos.sum()), statements.sum(), rows.sum(),
+                millis(remoteNanos.sum()), remoteCalls.sum(),
+                millis(System.nanoTime() - startNanos));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
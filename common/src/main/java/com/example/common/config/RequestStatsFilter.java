@@ -0,0 +1,259 @@
+package com.example.common.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Collects {@link RequestStats} for every request and reports them.
+ * <p>
+ * The counts are recorded per endpoint in the {@code http.server.requests.statements}, {@code .rows} and
+ * {@code .remote.calls} distributions. A statement or remote call repeated at least the threshold number of
+ * times within one request is logged as a suspected N+1 and counted in {@code http.server.requests.n_plus_one}.
+ * The {@code Server-Timing} header is added just before the response is committed, so work done while
+ * writing the body, e.g. lazy loading during serialization, is in the metrics but not in the header.
+ */
+public class RequestStatsFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RequestStatsFilter.class);
+    private static final String ATTRIBUTE = RequestStats.class.getName();
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+    private final LogThrottle nPlusOneLog = new LogThrottle(Duration.ofSeconds(10));
+
+    public RequestStatsFilter(MeterRegistry meterRegistry, int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    // The async dispatch that writes a deferred result has to see the same stats
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStats stats = (RequestStats) request.getAttribute(ATTRIBUTE);
+        boolean initial = stats == null;
+        HttpServletResponse target = response;
+        if (initial) {
+            stats = new RequestStats();
+            request.setAttribute(ATTRIBUTE, stats);
+            target = new ServerTimingResponse(response, stats);
+        }
+
+        RequestStats previous = RequestStats.bind(stats);
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            RequestStats.bind(previous);
+            if (initial) {
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(new CompletionListener(request, stats));
+                } else {
+                    ((ServerTimingResponse) target).writeHeader();
+                    report(request, stats);
+                }
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestStats stats) {
+        String method = request.getMethod();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        if (meterRegistry != null) {
+            record("http.server.requests.statements", method, uri, stats.getStatements());
+            record("http.server.requests.rows", method, uri, stats.getRows());
+            record("http.server.requests.remote.calls", method, uri, stats.getRemoteCalls());
+        }
+        reportRepeated(method, uri, "sql", stats.repeatedStatements(nPlusOneThreshold));
+        reportRepeated(method, uri, "remote", stats.repeatedRemoteCalls(nPlusOneThreshold));
+    }
+
+    private void record(String name, String method, String uri, long value) {
+        DistributionSummary.builder(name)
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(value);
+    }
+
+    private void reportRepeated(String method, String uri, String kind, Map<String, Long> repeated) {
+        repeated.forEach((key, count) -> {
+            long suppressed = nPlusOneLog.acquire();
+            if (suppressed >= 0) {
+                logger.warn("Possible N+1 in {} {}: {} x {} ({} more since the last report)", method, uri, count, key, suppressed);
+            }
+            if (meterRegistry != null) {
+                meterRegistry.counter("http.server.requests.n_plus_one", "method", method, "uri", uri, "kind", kind)
+                        .increment();
+            }
+        });
+    }
+
+    private class CompletionListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final RequestStats stats;
+
+        CompletionListener(HttpServletRequest request, RequestStats stats) {
+            this.request = request;
+            this.stats = stats;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            report(request, stats);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    // Adds the Server-Timing header before the first byte of the body, which may commit the response
+    private static class ServerTimingResponse extends HttpServletResponseWrapper {
+        private final RequestStats stats;
+        private boolean headerWritten;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ServerTimingResponse(HttpServletResponse response, RequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeader() {
+            if (!headerWritten) {
+                headerWritten = true;
+                if (!isCommitted()) {
+                    setHeader(SERVER_TIMING, stats.serverTiming());
+                }
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return target.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        target.setWriteListener(writeListener);
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        writeHeader();
+                        target.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        writeHeader();
+                        target.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        writeHeader();
+                        target.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        writeHeader();
+                        target.close();
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter target = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] chars, int off, int len) {
+                        writeHeader();
+                        target.write(chars, off, len);
+                    }
+
+                    @Override
+                    public void flush() {
+                        writeHeader();
+                        target.flush();
+                    }
+
+                    @Override
+                    public void close() {
+                        writeHeader();
+                        target.close();
+                    }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.common.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * With {@code request-threads.virtual=true} Tomcat runs every request on its own virtual thread instead of
+ * its worker pool, so blocking on JDBC or on another service no longer ties up one of a few hundred platform
+ * threads. Connections are then rationed by {@link BoundedDataSource}, and pinned virtual threads are
+ * reported by {@link PinnedThreadMonitor}. On runtimes before Java 21 the worker pool is kept, and with it
+ * the plain connection pools; {@link RequestThreads} tells which of the two is in use.
+ */
+@Configuration
+public class RequestThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(RequestThreadConfig.class);
+
+    @Bean
+    public RequestThreads requestThreads(RequestThreadProperties properties) {
+        if (!properties.isVirtual()) {
+            return new RequestThreads(null);
+        }
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("http-virtual-");
+        if (executor == null && !VirtualThreads.isSupported()) {
+            logger.warn("Virtual threads need Java 21 or later, running on Java {}; keeping the Tomcat worker pool",
+                    Runtime.version().feature());
+        }
+        return new RequestThreads(executor);
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> requestExecutorCustomizer(RequestThreads requestThreads) {
+        return protocolHandler -> {
+            if (requestThreads.isVirtual()) {
+                protocolHandler.setExecutor(requestThreads.getVirtualExecutor());
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "request-threads", name = "virtual", havingValue = "true")
+    public PinnedThreadMonitor pinnedThreadMonitor(RequestThreadProperties properties,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new PinnedThreadMonitor(properties.getPinnedThreshold(), meterRegistry.getIfAvailable());
+    }
+
+    // Nothing depends on the monitor, so with lazy initialization it would never start
+    @Bean
+    public static LazyInitializationExcludeFilter pinnedThreadMonitorExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(PinnedThreadMonitor.class);
+    }
+}
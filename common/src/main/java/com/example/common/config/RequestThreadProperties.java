@@ -0,0 +1,30 @@
+package com.example.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * How requests are run, bound from the {@code request-threads.*} properties.
+ */
+@ConfigurationProperties(prefix = "request-threads")
+public class RequestThreadProperties {
+    private boolean virtual;
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public void setVirtual(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public Duration getPinnedThreshold() {
+        return pinnedThreshold;
+    }
+
+    public void setPinnedThreshold(Duration pinnedThreshold) {
+        this.pinnedThreshold = pinnedThreshold;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.common.config;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The threads requests actually run on: virtual threads when {@code request-threads.virtual=true} and the
+ * runtime could provide them, otherwise Tomcat's worker pool.
+ */
+public class RequestThreads {
+    private final ExecutorService virtualExecutor;
+
+    public RequestThreads(ExecutorService virtualExecutor) {
+        this.virtualExecutor = virtualExecutor;
+    }
+
+    public boolean isVirtual() {
+        return virtualExecutor != null;
+    }
+
+    /**
+     * The executor that starts a virtual thread per request, or null on the worker pool.
+     */
+    public ExecutorService getVirtualExecutor() {
+        return virtualExecutor;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.common.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.context.event.SpringApplicationEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long each startup phase took once the application is ready: JVM start until Spring starts,
+ * environment preparation, context refresh including the web server, and the runners, followed by the
+ * beans whose own instantiation took longest. With the actuator present, every recorded step is also served by its
+ * startup endpoint.
+ * <p>
+ * With {@code startup.exit-after-ready=true} the application exits right after the report, which the
+ * {@code appcds} build profile uses for its training run.
+ */
+public class StartupTimings implements ApplicationListener<SpringApplicationEvent> {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimings.class);
+    private static final int CAPACITY = 8192;
+    private static final int SLOWEST_BEANS = 5;
+    private static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private final BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(CAPACITY);
+    private long startingAt;
+    private long environmentPreparedAt;
+    private long startedAt;
+
+    public static void install(SpringApplication application) {
+        StartupTimings timings = new StartupTimings();
+        application.setApplicationStartup(timings.applicationStartup);
+        application.addListeners(timings);
+    }
+
+    @Override
+    public void onApplicationEvent(SpringApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            startingAt = event.getTimestamp();
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            environmentPreparedAt = event.getTimestamp();
+        } else if (event instanceof ApplicationStartedEvent) {
+            startedAt = event.getTimestamp();
+        } else if (event instanceof ApplicationReadyEvent) {
+            ConfigurableApplicationContext context = ((ApplicationReadyEvent) event).getApplicationContext();
+            report(event.getTimestamp());
+            if (context.getEnvironment().getProperty("startup.exit-after-ready", Boolean.class, false)) {
+                System.exit(SpringApplication.exit(context));
+            }
+        }
+    }
+
+    private void report(long readyAt) {
+        long jvmStartedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+        logger.info(String.format(Locale.ROOT,
+                "Ready %.3fs after JVM start (jvm %.3fs, environment %.3fs, context %.3fs, runners %.3fs); slowest beans: %s",
+                seconds(readyAt - jvmStartedAt), seconds(startingAt - jvmStartedAt), seconds(environmentPreparedAt - startingAt),
+                seconds(startedAt - environmentPreparedAt), seconds(readyAt - startedAt), slowestBeans()));
+    }
+
+    // Time spent in each bean itself, without the beans it created along the way
+    private String slowestBeans() {
+        Map<Long, StartupTimeline.TimelineEvent> instantiations = applicationStartup.getBufferedTimeline().getEvents().stream()
+                .filter(event -> BEAN_INSTANTIATION.equals(event.getStartupStep().getName()))
+                .collect(Collectors.toMap(event -> event.getStartupStep().getId(), event -> event));
+        Map<Long, Long> ownNanos = new HashMap<>();
+        instantiations.forEach((id, event) -> ownNanos.put(id, event.getDuration().toNanos()));
+        instantiations.values().forEach(event -> {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null && instantiations.containsKey(parentId)) {
+                ownNanos.merge(parentId, -event.getDuration().toNanos(), Long::sum);
+            }
+        });
+        return ownNanos.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(SLOWEST_BEANS)
+                .map(entry -> String.format(Locale.ROOT, "%s %.3fs",
+                        beanName(instantiations.get(entry.getKey()).getStartupStep()), seconds(entry.getValue() / 1_000_000)))
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+
+    private static double seconds(long millis) {
+        return millis / 1000.0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.common.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts the statements executed and rows read through its connections into the {@link RequestStats} of
+ * the current request. Outside of a request connections are used as they are, apart from the proxy.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement) {
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return statement((Statement) result, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Object statement(Statement target, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (!name.startsWith("execute")) {
+                        Object result = invoke(target, method, args);
+                        return result instanceof ResultSet ? resultSet((ResultSet) result) : result;
+                    }
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                    long start = System.nanoTime();
+                    try {
+                        Object result = invoke(target, method, args);
+                        return result instanceof ResultSet ? resultSet((ResultSet) result) : result;
+                    } finally {
+                        RequestStats stats = RequestStats.current();
+                        if (stats != null) {
+                            stats.statement(sql, System.nanoTime() - start, name.equals("executeBatch") || name.equals("executeLargeBatch"));
+                        }
+                    }
+                });
+    }
+
+    private ResultSet resultSet(ResultSet target) {
+        RequestStats stats = RequestStats.current();
+        if (stats == null) {
+            return target;
+        }
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                        stats.row();
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
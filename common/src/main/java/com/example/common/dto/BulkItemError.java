@@ -0,0 +1,42 @@
+package com.example.common.dto;
+
+public class BulkItemError {
+    private int index;
+    private Long id;
+    private String message;
+
+    public BulkItemError() {
+    }
+
+    public BulkItemError(int index, Long id, String message) {
+        this.index = index;
+        this.id = id;
+        this.message = message;
+    }
+
+    // Getters and setters
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
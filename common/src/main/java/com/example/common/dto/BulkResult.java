@@ -0,0 +1,62 @@
+package com.example.common.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk request. Only the first {@value #MAX_REPORTED_ERRORS} item errors are listed;
+ * {@code failed} always holds the full count.
+ */
+public class BulkResult {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int processed;
+    private int succeeded;
+    private int failed;
+    private List<BulkItemError> errors = new ArrayList<>();
+
+    public void record(int items, List<BulkItemError> itemErrors) {
+        processed += items;
+        failed += itemErrors.size();
+        succeeded += items - itemErrors.size();
+        for (BulkItemError error : itemErrors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    // Getters and setters
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BulkItemError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BulkItemError> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.common.dto;
+
+import java.time.Instant;
+
+/**
+ * The validators of a stored resource, loaded without the resource itself to answer conditional requests.
+ */
+public class ResourceVersion {
+    private final long version;
+    private final Instant updatedAt;
+
+    public ResourceVersion(long version, Instant updatedAt) {
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
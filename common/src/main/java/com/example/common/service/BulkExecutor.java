@@ -0,0 +1,96 @@
+package com.example.common.service;
+
+import com.example.common.dto.BulkItemError;
+import com.example.common.dto.BulkResult;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Applies a bulk operation in chunks of {@value #CHUNK_SIZE} items, one transaction per chunk.
+ * <p>
+ * When a chunk fails as a whole, it is rolled back and replayed item by item so that only the
+ * offending items are reported. The persistence context is cleared after every chunk, so memory
+ * stays flat however many items are streamed in.
+ */
+@Component
+public class BulkExecutor {
+    public static final int CHUNK_SIZE = 500;
+
+    @FunctionalInterface
+    public interface ChunkOperation<T> {
+        /**
+         * Applies the operation to a chunk inside a transaction and returns the items it rejected.
+         */
+        List<BulkItemError> apply(List<T> chunk, int firstIndex);
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public BulkExecutor(TransactionTemplate transactionTemplate, EntityManager entityManager) {
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+    }
+
+    public <T> BulkResult execute(Iterator<T> items, ChunkOperation<T> operation) {
+        BulkResult result = new BulkResult();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+        try {
+            while (items.hasNext()) {
+                chunk.add(items.next());
+                index++;
+                if (chunk.size() == CHUNK_SIZE) {
+                    executeChunk(chunk, index - chunk.size(), operation, result);
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Malformed input: keep what was committed and report where reading stopped
+            result.record(1, List.of(new BulkItemError(index, null, "Unreadable item: " + e.getMessage())));
+        }
+        if (!chunk.isEmpty()) {
+            executeChunk(chunk, index - chunk.size(), operation, result);
+        }
+        return result;
+    }
+
+    private <T> void executeChunk(List<T> chunk, int firstIndex, ChunkOperation<T> operation, BulkResult result) {
+        try {
+            result.record(chunk.size(), inTransaction(chunk, firstIndex, operation));
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    result.record(1, inTransaction(List.of(chunk.get(i)), firstIndex + i, operation));
+                } catch (RuntimeException itemError) {
+                    result.record(1, List.of(new BulkItemError(firstIndex + i, null, rootMessage(itemError))));
+                }
+                entityManager.clear();
+            }
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private <T> List<BulkItemError> inTransaction(List<T> chunk, int firstIndex, ChunkOperation<T> operation) {
+        return transactionTemplate.execute(status -> {
+            List<BulkItemError> errors = operation.apply(chunk, firstIndex);
+            entityManager.flush();
+            return errors;
+        });
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
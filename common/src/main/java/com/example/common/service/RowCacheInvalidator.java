@@ -0,0 +1,47 @@
+package com.example.common.service;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+
+/**
+ * Second-level cache invalidation for single-row statements. Hibernate clears the whole entity region after
+ * any bulk statement; native statements in the {@value #QUERY_SPACE} query space skip that, and this evicts
+ * only the written row and marks the entity's tables as changed for the query cache.
+ * <p>
+ * Like Hibernate's own cleanup it runs twice: once the statement has run, when the tables are marked as
+ * changing until commit, and after the transaction completes, so that nothing cached in between survives.
+ */
+@Component
+public class RowCacheInvalidator {
+    public static final String QUERY_SPACE = "single_row_writes";
+
+    private final EntityManager entityManager;
+
+    public RowCacheInvalidator(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rowWritten(Class<?> entityClass, Object id) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        Serializable[] spaces = factory.getMetamodel().entityPersister(entityClass).getQuerySpaces();
+        factory.getCache().getTimestampsCache().preInvalidate(spaces, session);
+        factory.getCache().evict(entityClass, id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                factory.getCache().getTimestampsCache().invalidate(spaces, session);
+                factory.getCache().evict(entityClass, id);
+            }
+        });
+    }
+}
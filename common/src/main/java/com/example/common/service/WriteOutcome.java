@@ -0,0 +1,10 @@
+package com.example.common.service;
+
+/**
+ * Result of a single-statement conditional write.
+ */
+public enum WriteOutcome {
+    APPLIED,
+    NOT_FOUND,
+    VERSION_CONFLICT
+}
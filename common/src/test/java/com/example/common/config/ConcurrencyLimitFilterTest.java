@@ -0,0 +1,73 @@
+package com.example.common.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncContext;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+    private static final int LIMIT = 10;
+
+    private ConcurrencyLimitFilter filter;
+    private final List<AsyncContext> inflight = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(LIMIT);
+        properties.setMinLimit(LIMIT);
+        properties.setMaxLimit(LIMIT);
+        Map<RequestPriority, List<String>> endpoints = new EnumMap<>(RequestPriority.class);
+        endpoints.put(RequestPriority.BULK, List.of("GET /api/items", "/api/items/bulk"));
+        endpoints.put(RequestPriority.CRITICAL, List.of("GET /api/items/{id}"));
+        properties.setEndpoints(endpoints);
+        filter = new ConcurrencyLimitFilter(properties, null);
+    }
+
+    @Test
+    void shedsBulkFirstAndCriticalLast() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            assertThat(hold("POST", "/api/items").getStatus()).isEqualTo(200);
+        }
+        // Bulk may fill 70% of the limit, normal 90% and critical all of it
+        MockHttpServletResponse shedBulk = hold("GET", "/api/items");
+        assertThat(shedBulk.getStatus()).isEqualTo(503);
+        assertThat(shedBulk.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(hold("POST", "/api/items/bulk").getStatus()).isEqualTo(503);
+
+        assertThat(hold("POST", "/api/items").getStatus()).isEqualTo(200);
+        assertThat(hold("POST", "/api/items").getStatus()).isEqualTo(200);
+        assertThat(hold("POST", "/api/items").getStatus()).isEqualTo(503);
+
+        assertThat(hold("GET", "/api/items/1").getStatus()).isEqualTo(200);
+        assertThat(hold("GET", "/api/items/2").getStatus()).isEqualTo(503);
+    }
+
+    @Test
+    void completedAsyncRequestsReleaseTheirPermits() throws Exception {
+        for (int i = 0; i < LIMIT; i++) {
+            assertThat(hold("GET", "/api/items/" + i).getStatus()).isEqualTo(200);
+        }
+        assertThat(hold("GET", "/api/items/0").getStatus()).isEqualTo(503);
+
+        inflight.remove(0).complete();
+        assertThat(hold("GET", "/api/items/0").getStatus()).isEqualTo(200);
+    }
+
+    // Starts the request asynchronously, so it keeps its permit until completed
+    private MockHttpServletResponse hold(String method, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> inflight.add(req.startAsync()));
+        return response;
+    }
+}
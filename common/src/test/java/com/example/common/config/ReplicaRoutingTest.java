@@ -0,0 +1,113 @@
+package com.example.common.config;
+
+import com.example.common.Item;
+import org.hibernate.jpa.QueryHints;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ReplicaRoutingTest {
+    private static final long ID = 1L;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private Replicas replicas;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        readWrite().executeWithoutResult(status -> entityManager.merge(new Item(ID, "old")));
+        replica = new JdbcTemplate(replicas.getDataSources().get("replica-0"));
+        replica.execute("create table if not exists items (id bigint not null primary key, name varchar(255))");
+        replica.execute("create table if not exists replication_heartbeat (id int not null primary key, beat_at bigint not null)");
+        replica.update("merge into items (id, name) key (id) values (?, 'old')", ID);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void replicaReadDoesNotRefillTheCachesAfterAWrite() {
+        keepReplicaCurrent();
+        await(() -> replicas.pick() != null);
+
+        // The update has not reached the replica yet, and the row is evicted as after a native write
+        readWrite().executeWithoutResult(status -> entityManager.find(Item.class, ID).setName("new"));
+        entityManagerFactory.getCache().evict(Item.class, ID);
+
+        assertThat(found(readOnly())).isEqualTo("old");
+        assertThat(queried(readOnly())).isEqualTo("old");
+        assertThat(entityManagerFactory.getCache().contains(Item.class, ID)).isFalse();
+
+        assertThat(found(readWrite())).isEqualTo("new");
+        assertThat(queried(readWrite())).isEqualTo("new");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        replica.update("merge into replication_heartbeat (id, beat_at) key (id) values (1, 0)");
+        await(() -> replicas.pick() == null);
+
+        readWrite().executeWithoutResult(status -> entityManager.find(Item.class, ID).setName("new"));
+        entityManagerFactory.getCache().evict(Item.class, ID);
+
+        assertThat(found(readOnly())).isEqualTo("new");
+        assertThat(entityManagerFactory.getCache().contains(Item.class, ID)).isTrue();
+    }
+
+    // A stamp from the future never ages, so the replica counts as caught up throughout the test
+    private void keepReplicaCurrent() {
+        replica.update("merge into replication_heartbeat (id, beat_at) key (id) values (1, ?)",
+                System.currentTimeMillis() + 3_600_000);
+    }
+
+    private String found(TransactionTemplate transaction) {
+        return transaction.execute(status -> entityManager.find(Item.class, ID).getName());
+    }
+
+    // Through the query cache
+    private String queried(TransactionTemplate transaction) {
+        return transaction.execute(status -> entityManager.createQuery("select i.name from Item i where i.id = :id", String.class)
+                .setParameter("id", ID)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .getSingleResult());
+    }
+
+    private TransactionTemplate readWrite() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("waited for the replica heartbeat").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}